@@ -1,10 +1,22 @@
 package com.alura.literalura;
 
 import com.alura.literalura.principal.Principal;
+import com.alura.literalura.service.CosechadorCatalogoService;
+import com.alura.literalura.service.EliminacionMasivaService;
+import com.alura.literalura.service.ExportacionCatalogoService;
+import com.alura.literalura.service.IntegridadCatalogoService;
+import com.alura.literalura.test.ComparacionRendimiento;
+import com.alura.literalura.util.CriteriosFiltro;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Lazy;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.Arrays;
 
 @SpringBootApplication
 public class LiteraluraApplication implements CommandLineRunner {
@@ -12,12 +24,104 @@ public class LiteraluraApplication implements CommandLineRunner {
 	@Autowired
 	private Principal principal;
 
+	// Perezosos: solo se crean si se pide la cosecha, la exportación, la integridad, la purga o la comparación
+	@Autowired
+	@Lazy
+	private CosechadorCatalogoService cosechadorCatalogoService;
+
+	@Autowired
+	@Lazy
+	private ComparacionRendimiento comparacionRendimiento;
+
+	@Autowired
+	@Lazy
+	private ExportacionCatalogoService exportacionCatalogoService;
+
+	@Autowired
+	@Lazy
+	private IntegridadCatalogoService integridadCatalogoService;
+
+	@Autowired
+	@Lazy
+	private EliminacionMasivaService eliminacionMasivaService;
+
+	// Presupuesto de arranque en milisegundos (0 = sin límite)
+	@Value("${literalura.arranque.presupuesto-ms:0}")
+	private long presupuestoArranqueMs;
+
 	public static void main(String[] args) {
 		SpringApplication.run(LiteraluraApplication.class, args);
 	}
 
 	@Override
 	public void run(String... args) throws Exception {
+		// Carga no interactiva del catálogo completo (p. ej. tarea nocturna)
+		if (Arrays.asList(args).contains("--cosechar")) {
+			cosechadorCatalogoService.cosecharCatalogoCompleto();
+			return;
+		}
+
+		// Exportación del catálogo: --exportar=catalogo.csv o --exportar=catalogo.jsonl
+		for (String arg : args) {
+			if (arg.startsWith("--exportar=")) {
+				exportacionCatalogoService.exportar(Path.of(arg.substring("--exportar=".length())));
+				return;
+			}
+		}
+
+		// Validación de integridad (p. ej. tarea nocturna); --reparar-integridad además
+		// corrige por lotes lo encontrado
+		if (Arrays.asList(args).contains("--verificar-integridad")) {
+			System.out.println(integridadCatalogoService.verificar());
+			return;
+		}
+		if (Arrays.asList(args).contains("--reparar-integridad")) {
+			System.out.println(integridadCatalogoService.verificarYReparar());
+			return;
+		}
+
+		// Purga por lotes: --purgar-idioma=xx y/o --purgar-descargas-maximas=N (se combinan)
+		CriteriosFiltro purga = criteriosPurga(args);
+		if (!purga.estaVacio()) {
+			eliminacionMasivaService.eliminarLibros(purga);
+			return;
+		}
+
+		// Comparación de rendimiento secuencial vs. hilos virtuales (Java 21+)
+		if (Arrays.asList(args).contains("--comparar-rendimiento")) {
+			comparacionRendimiento.ejecutar(10);
+			return;
+		}
+
+		reportarTiempoHastaMenu();
 		principal.muestraElMenu();
 	}
+
+	/**
+	 * Criterios de la purga según los argumentos (vacíos si no se pidió)
+	 */
+	private CriteriosFiltro criteriosPurga(String... args) {
+		CriteriosFiltro criterios = new CriteriosFiltro();
+		for (String arg : args) {
+			if (arg.startsWith("--purgar-idioma=")) {
+				criterios.setIdioma(arg.substring("--purgar-idioma=".length()));
+			} else if (arg.startsWith("--purgar-descargas-maximas=")) {
+				criterios.setDescargasMaximas(Integer.parseInt(arg.substring("--purgar-descargas-maximas=".length())));
+			}
+		}
+		return criterios;
+	}
+
+	/**
+	 * Tiempo desde el inicio de la JVM hasta que el menú está listo, comparado
+	 * con el presupuesto configurado
+	 */
+	private void reportarTiempoHastaMenu() {
+		long tiempoMs = ManagementFactory.getRuntimeMXBean().getUptime();
+		System.out.printf("⏱️ Tiempo hasta el menú: %,d ms%n", tiempoMs);
+
+		if (presupuestoArranqueMs > 0 && tiempoMs > presupuestoArranqueMs) {
+			System.out.printf("⚠️ Arranque fuera de presupuesto: %,d ms > %,d ms%n", tiempoMs, presupuestoArranqueMs);
+		}
+	}
 }
@@ -2,6 +2,47 @@ package com.alura.literalura.config;
 
 public class ApiConfig {
     public static final String BASE_URL = "https://gutendex.com/books/";
+
+    // Permite apuntar a otra instancia de Gutendex (por ejemplo, el servidor simulado de las pruebas)
+    public static final String PROPIEDAD_BASE_URL = "literalura.api.base-url";
+    public static final String VARIABLE_BASE_URL = "LITERALURA_API_BASE_URL";
+
     public static final int TIMEOUT_SECONDS = 30;
     public static final String USER_AGENT = "LiterAlura/1.0";
+
+    // Cosecha del catálogo completo
+    public static final int TAMANO_PAGINA = 32; // Libros por página que devuelve Gutendex
+    public static final int MAX_SOLICITUDES_CONCURRENTES = 4;
+    public static final int MAX_SOLICITUDES_CONCURRENTES_VIRTUALES = 256;
+
+    // Limitador de tasa (token bucket adaptativo) y reintentos ante 429/5xx
+    public static final double SOLICITUDES_POR_SEGUNDO = 5.0;
+    public static final double SOLICITUDES_POR_SEGUNDO_MINIMO = 0.5;
+    public static final int RAFAGA_MAXIMA = 5;
+    public static final int MAX_REINTENTOS = 5;
+    public static final long ESPERA_BASE_REINTENTO_MS = 500;
+    public static final long ESPERA_MAXIMA_REINTENTO_MS = 60_000;
+
+    // Caché HTTP en disco (revalidada con ETag / Last-Modified)
+    public static final String DIRECTORIO_CACHE_HTTP = System.getProperty("user.home") + "/.literalura/cache-http";
+    // Límites de la caché: cada uso renueva la fecha de modificación de la entrada.
+    // Al superar el tamaño se eliminan las usadas hace más tiempo hasta quedar en el
+    // 90 %; las que no se usan en la edad máxima se descartan siempre
+    public static final long MAX_BYTES_CACHE_HTTP = 256L * 1024 * 1024;
+    public static final int DIAS_MAXIMOS_CACHE_HTTP = 30;
+
+    /**
+     * URL base efectiva: propiedad del sistema, variable de entorno o Gutendex.
+     * Se lee en cada llamada para poder cambiarla sin reiniciar (útil en pruebas).
+     */
+    public static String obtenerBaseUrl() {
+        String url = System.getProperty(PROPIEDAD_BASE_URL);
+        if (url == null || url.isBlank()) {
+            url = System.getenv(VARIABLE_BASE_URL);
+        }
+        if (url == null || url.isBlank()) {
+            return BASE_URL;
+        }
+        return url.endsWith("/") ? url : url + "/";
+    }
 }
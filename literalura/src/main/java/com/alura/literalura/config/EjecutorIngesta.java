@@ -0,0 +1,64 @@
+package com.alura.literalura.config;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+
+@Component
+public class EjecutorIngesta implements DisposableBean {
+
+    private final ExecutorService ejecutor;
+
+    public EjecutorIngesta(@Value("${literalura.ejecucion.hilos-virtuales:false}") boolean solicitarHilosVirtuales) {
+        if (!solicitarHilosVirtuales) {
+            this.ejecutor = null;
+            return;
+        }
+
+        this.ejecutor = crearEjecutorHilosVirtuales().orElse(null);
+
+        if (ejecutor != null) {
+            System.out.println("🧵 Modo de ejecución: hilos virtuales");
+        } else {
+            System.out.println("⚠️ Los hilos virtuales requieren Java 21+; se usa el modo tradicional");
+        }
+    }
+
+    /**
+     * Indica si la ingesta y el cliente HTTP deben correr sobre hilos virtuales
+     */
+    public boolean usaHilosVirtuales() {
+        return ejecutor != null;
+    }
+
+    /**
+     * Ejecutor de un hilo virtual por tarea (vacío si el modo no está activo)
+     */
+    public Optional<ExecutorService> getEjecutor() {
+        return Optional.ofNullable(ejecutor);
+    }
+
+    /**
+     * El proyecto compila para Java 17, así que el ejecutor de hilos virtuales se
+     * obtiene por reflexión: solo existe si la JVM en ejecución es 21 o superior
+     */
+    public static Optional<ExecutorService> crearEjecutorHilosVirtuales() {
+        try {
+            Method fabrica = java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return Optional.of((ExecutorService) fabrica.invoke(null));
+        } catch (ReflectiveOperationException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (ejecutor != null) {
+            ejecutor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.alura.literalura.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Separación de lecturas y escrituras. Las transacciones de solo lectura
+ * (@Transactional(readOnly = true) en servicios y repositorios) toman sus
+ * conexiones de la réplica si literalura.datasource.replica.url está
+ * configurada; todo lo demás, y todo si no hay réplica, va a la principal.
+ * Los repositorios llevan @Transactional(readOnly = true) en la interfaz, así
+ * que sus consultas van a la réplica; los métodos que escriben (upserts, DELETE
+ * y UPDATE por lotes) declaran su propio @Transactional y van a la principal.
+ *
+ * La conexión se obtiene recién en la primera sentencia (LazyConnectionDataSourceProxy):
+ * para entonces Hibernate ya la marcó de solo lectura y el proxy elige el pool.
+ * La réplica puede ir atrasada respecto de la principal: lo recién escrito se
+ * lee dentro de una transacción de lectura y escritura.
+ */
+@Configuration(proxyBeanMethods = false)
+public class OrigenesDatosConfig {
+
+    public static final String PROPIEDAD_URL_REPLICA = "literalura.datasource.replica.url";
+
+    /**
+     * Pool de la base principal (spring.datasource.*)
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource origenPrincipal(DataSourceProperties propiedades) {
+        HikariDataSource principal = propiedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        principal.setPoolName("literalura-principal");
+        return principal;
+    }
+
+    /**
+     * Pool de la réplica de lectura. Usuario y contraseña, los de la principal
+     * salvo que se indiquen otros
+     */
+    @Bean
+    @ConditionalOnProperty(PROPIEDAD_URL_REPLICA)
+    public HikariDataSource origenReplica(DataSourceProperties propiedades, Environment entorno) {
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName("literalura-replica");
+        replica.setDriverClassName(propiedades.determineDriverClassName());
+        replica.setJdbcUrl(entorno.getProperty(PROPIEDAD_URL_REPLICA));
+        replica.setUsername(entorno.getProperty("literalura.datasource.replica.username", propiedades.determineUsername()));
+        replica.setPassword(entorno.getProperty("literalura.datasource.replica.password", propiedades.determinePassword()));
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    /**
+     * DataSource que usan JPA, Flyway y JdbcTemplate
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("origenPrincipal") DataSource principal,
+            @Qualifier("origenReplica") ObjectProvider<DataSource> replica) {
+        LazyConnectionDataSourceProxy enrutador = new LazyConnectionDataSourceProxy(principal);
+        replica.ifAvailable(origen -> {
+            enrutador.setReadOnlyDataSource(origen);
+            System.out.println("📖 Transacciones de solo lectura enviadas a la réplica");
+        });
+        return enrutador;
+    }
+}
@@ -0,0 +1,8 @@
+package com.alura.literalura.dto;
+
+/**
+ * Posición en una paginación por clave (keyset): valor de orden e ID del último
+ * elemento entregado. La página siguiente empieza justo después.
+ */
+public record Cursor<K>(K clave, Long id) {
+}
@@ -0,0 +1,17 @@
+package com.alura.literalura.dto;
+
+/**
+ * Estadísticas de descargas calculadas en la base con una consulta agregada.
+ * suma, promedio, máximo y mínimo son null si ningún libro tiene el dato.
+ */
+public record EstadisticasDescargas(long libros, long librosConDescargas, Long suma, Double promedio,
+        Integer maximo, Integer minimo) {
+
+    public long sumaOCero() {
+        return suma != null ? suma : 0L;
+    }
+
+    public double promedioOCero() {
+        return promedio != null ? promedio : 0.0;
+    }
+}
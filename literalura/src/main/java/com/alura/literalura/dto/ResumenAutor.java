@@ -0,0 +1,24 @@
+package com.alura.literalura.dto;
+
+/**
+ * Autor con su cantidad de libros, armado por una sola consulta agregada (sin
+ * cargar la colección de libros de cada autor)
+ */
+public record ResumenAutor(Long id, String nombre, Integer anoNacimiento, Integer anoFallecimiento,
+        long cantidadLibros) {
+
+    public boolean estaVivo() {
+        return anoFallecimiento == null;
+    }
+
+    public String periodoVida() {
+        String inicio = anoNacimiento != null ? anoNacimiento.toString() : "?";
+        String fin = anoFallecimiento != null ? anoFallecimiento.toString() : "presente";
+        return inicio + " - " + fin;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("👤 %s (%s) - %d libros", nombre, periodoVida(), cantidadLibros);
+    }
+}
@@ -0,0 +1,22 @@
+package com.alura.literalura.dto;
+
+import com.alura.literalura.entity.LibroEntity;
+
+/**
+ * Datos de un libro para listados: solo las columnas que se muestran, sin
+ * entidad gestionada (no pasa por el contexto de persistencia)
+ */
+public record ResumenLibro(Long id, String titulo, String nombreAutor, String idioma, Integer numeroDescargas) {
+
+    public String nombreAutor() {
+        return nombreAutor != null ? nombreAutor : "Autor desconocido";
+    }
+
+    public String nombreIdioma() {
+        return LibroEntity.nombreIdioma(idioma);
+    }
+
+    public String descargasFormateadas() {
+        return numeroDescargas != null ? String.format("%,d", numeroDescargas) : "N/A";
+    }
+}
@@ -1,15 +1,23 @@
 package com.alura.literalura.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
 @Table(name = "autores")
+// En la caché de segundo nivel: cada libro cargado resuelve su autor sin consulta
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "autores")
 public class AutorEntity {
 
+    // Secuencia con bloques de 50 IDs: a diferencia de IDENTITY, permite INSERT en lotes
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "autores_seq")
+    @SequenceGenerator(name = "autores_seq", sequenceName = "autores_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 500, unique = true)
@@ -91,8 +99,13 @@ public class AutorEntity {
         return inicio + " - " + fin;
     }
 
+    // No inicializa la colección perezosa: en listados sería una consulta por autor
+    // (para contar libros usar ResumenAutor)
     @Override
     public String toString() {
+        if (!Hibernate.isInitialized(libros)) {
+            return String.format("👤 %s (%s)", nombre, getPeriodoVida());
+        }
         return String.format("👤 %s (%s) - %d libros",
                 nombre,
                 getPeriodoVida(),
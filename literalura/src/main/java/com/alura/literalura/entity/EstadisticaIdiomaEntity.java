@@ -0,0 +1,70 @@
+package com.alura.literalura.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Synchronize;
+
+/**
+ * Fila de estadísticas de un idioma. La mantienen los triggers sobre libros
+ * (migración V5), así que es de solo lectura. Los libros sin idioma están bajo
+ * la clave ''.
+ */
+@Entity
+@Immutable
+@Table(name = "estadisticas_idioma")
+// Las consultas cacheadas sobre esta tabla se invalidan cuando Hibernate escribe en libros
+@Synchronize("libros")
+public class EstadisticaIdiomaEntity {
+
+    @Id
+    @Column(length = 10)
+    private String idioma;
+
+    @Column(name = "cantidad_libros", nullable = false)
+    private long cantidadLibros;
+
+    @Column(name = "libros_con_descargas", nullable = false)
+    private long librosConDescargas;
+
+    @Column(name = "suma_descargas", nullable = false)
+    private long sumaDescargas;
+
+    @Column(name = "minimo_descargas")
+    private Integer minimoDescargas;
+
+    @Column(name = "maximo_descargas")
+    private Integer maximoDescargas;
+
+    protected EstadisticaIdiomaEntity() {
+    }
+
+    public String getIdioma() {
+        return idioma;
+    }
+
+    public long getCantidadLibros() {
+        return cantidadLibros;
+    }
+
+    public long getLibrosConDescargas() {
+        return librosConDescargas;
+    }
+
+    public long getSumaDescargas() {
+        return sumaDescargas;
+    }
+
+    public Integer getMinimoDescargas() {
+        return minimoDescargas;
+    }
+
+    public Integer getMaximoDescargas() {
+        return maximoDescargas;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("EstadisticaIdioma{idioma='%s', libros=%d, descargas=%d}",
+                idioma, cantidadLibros, sumaDescargas);
+    }
+}
@@ -12,8 +12,10 @@ public class LibroEntity {
     @Column(nullable = false, length = 1000)
     private String titulo;
 
-    @ManyToOne(fetch = FetchType.EAGER, cascade = { CascadeType.PERSIST, CascadeType.MERGE })
-    @JoinColumn(name = "autor_id", nullable = false)
+    // Sin cascada: el autor se resuelve antes (CacheAutores) y basta con su ID.
+    // Nulo para los libros que Gutendex publica sin autor
+    @ManyToOne(fetch = FetchType.EAGER)
+    @JoinColumn(name = "autor_id")
     private AutorEntity autor;
 
     @Column(length = 10)
@@ -92,6 +94,11 @@ public class LibroEntity {
     }
 
     public String getNombreIdioma() {
+        return nombreIdioma(idioma);
+    }
+
+    // Nombre legible de un código de idioma (también lo usan las proyecciones)
+    public static String nombreIdioma(String idioma) {
         return switch (idioma != null ? idioma.toLowerCase() : "") {
             case "es" -> "Español";
             case "en" -> "Inglés";
@@ -1,10 +1,12 @@
 package com.alura.literalura.principal;
 
-import com.alura.literalura.entity.AutorEntity;
+import com.alura.literalura.dto.ResumenAutor;
+import com.alura.literalura.dto.ResumenLibro;
 import com.alura.literalura.entity.LibroEntity;
 import com.alura.literalura.service.AutoresVivosService;
 import com.alura.literalura.service.EstadisticasIdiomaService;
 import com.alura.literalura.service.PersistenciaService;
+import com.alura.literalura.util.PaginadorKeyset;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -47,6 +49,7 @@ public class Principal {
                     8️⃣  - Comparar dos idiomas
                     9️⃣  - Distribución de libros por idioma
                     🔟  - Menú avanzado de autores
+                    1️⃣1️⃣ - Buscar en el catálogo local (título o autor)
                     0️⃣  - Salir
 
                     ═══════════════════════════════════════════
@@ -69,11 +72,12 @@ public class Principal {
                     case 8 -> compararDosIdiomas();
                     case 9 -> mostrarDistribucionIdiomas();
                     case 10 -> menuAutoresAvanzado();
+                    case 11 -> buscarEnCatalogoLocal();
                     case 0 -> {
                         System.out.println("\n🙏 ¡Gracias por usar LiterAlura!");
                         System.out.println("📚 ¡Sus datos están seguros en PostgreSQL! 📚");
                     }
-                    default -> System.out.println("\n❌ Opción no válida. Seleccione del 0 al 10.");
+                    default -> System.out.println("\n❌ Opción no válida. Seleccione del 0 al 11.");
                 }
 
                 if (opcion != 0) {
@@ -104,7 +108,7 @@ public class Principal {
                 return;
             }
 
-            System.out.println("\n🔄 Buscando en API y guardando en PostgreSQL...");
+            System.out.println("\n🔄 Buscando en el catálogo local y en la API...");
             LibroEntity libro = persistenciaService.buscarYPersistirLibro(titulo);
 
             if (libro != null) {
@@ -123,24 +127,33 @@ public class Principal {
         }
     }
 
-    private void listarLibrosPersistidos() {
-        System.out.println("\n📚 === LIBROS EN BASE DE DATOS ===");
+    private void buscarEnCatalogoLocal() {
+        System.out.println("\n🔎 === BUSCAR EN EL CATÁLOGO LOCAL ===");
+        System.out.print("📝 Ingrese palabras del título o del autor: ");
 
         try {
-            List<LibroEntity> libros = persistenciaService.listarTodosLosLibrosPersistidos();
+            String texto = teclado.nextLine().trim();
+
+            if (texto.isEmpty()) {
+                System.out.println("❌ El texto no puede estar vacío.");
+                return;
+            }
+
+            List<LibroEntity> libros = persistenciaService.buscarEnCatalogoLocal(texto);
 
             if (libros.isEmpty()) {
-                System.out.println("📭 No hay libros en la base de datos.");
-                System.out.println("💡 Use la opción 1 para buscar y agregar libros.");
+                System.out.println("📭 Ningún libro registrado coincide con: " + texto);
+                System.out.println("💡 Use la opción 1 para buscarlo en Gutendex.");
                 return;
             }
 
-            System.out.println("\n📋 Libros guardados en PostgreSQL:");
+            System.out.println("\n📋 Resultados (más relevantes primero):");
             System.out.println("═".repeat(80));
 
-            for (int i = 0; i < libros.size(); i++) {
-                LibroEntity libro = libros.get(i);
-                System.out.printf("%d. 📖 %s%n", (i + 1), libro.getTitulo());
+            int posicion = 0;
+            for (LibroEntity libro : libros) {
+                posicion++;
+                System.out.printf("%d. 📖 %s%n", posicion, libro.getTitulo());
                 System.out.printf("   👤 %s | 🌍 %s | 📥 %s%n",
                         libro.getNombreAutor(),
                         libro.getNombreIdioma(),
@@ -149,7 +162,47 @@ public class Principal {
                 System.out.println("   " + "─".repeat(70));
             }
 
-            System.out.printf("\n📊 Total: %d libros registrados%n", libros.size());
+        } catch (Exception e) {
+            System.out.println("❌ Error al consultar base de datos: " + e.getMessage());
+        }
+    }
+
+    private void listarLibrosPersistidos() {
+        System.out.println("\n📚 === LIBROS EN BASE DE DATOS ===");
+
+        try {
+            PaginadorKeyset<ResumenLibro, String> paginas =
+                    persistenciaService.paginarLibrosPorTitulo(PersistenciaService.TAMANO_PAGINA_LISTADO);
+
+            if (!paginas.hasNext()) {
+                System.out.println("📭 No hay libros en la base de datos.");
+                System.out.println("💡 Use la opción 1 para buscar y agregar libros.");
+                return;
+            }
+
+            System.out.println("\n📋 Libros guardados en PostgreSQL:");
+            System.out.println("═".repeat(80));
+
+            int mostrados = 0;
+            while (paginas.hasNext()) {
+                for (ResumenLibro libro : paginas.next()) {
+                    mostrados++;
+                    System.out.printf("%d. 📖 %s%n", mostrados, libro.titulo());
+                    System.out.printf("   👤 %s | 🌍 %s | 📥 %s%n",
+                            libro.nombreAutor(),
+                            libro.nombreIdioma(),
+                            libro.descargasFormateadas());
+                    System.out.printf("   🆔 ID: %d%n", libro.id());
+                    System.out.println("   " + "─".repeat(70));
+                }
+
+                if (paginas.hasNext() && !verSiguientePagina()) {
+                    System.out.printf("\n📊 Mostrados: %d libros%n", mostrados);
+                    return;
+                }
+            }
+
+            System.out.printf("\n📊 Total: %d libros registrados%n", mostrados);
 
         } catch (Exception e) {
             System.out.println("❌ Error al consultar base de datos: " + e.getMessage());
@@ -160,9 +213,10 @@ public class Principal {
         System.out.println("\n👥 === AUTORES EN BASE DE DATOS ===");
 
         try {
-            List<AutorEntity> autores = persistenciaService.listarTodosLosAutoresPersistidos();
+            PaginadorKeyset<ResumenAutor, String> paginas =
+                    persistenciaService.paginarAutores(PersistenciaService.TAMANO_PAGINA_LISTADO);
 
-            if (autores.isEmpty()) {
+            if (!paginas.hasNext()) {
                 System.out.println("📭 No hay autores en la base de datos.");
                 System.out.println("💡 Los autores se agregan automáticamente al buscar libros.");
                 return;
@@ -171,16 +225,24 @@ public class Principal {
             System.out.println("\n📋 Autores guardados en PostgreSQL:");
             System.out.println("═".repeat(80));
 
-            for (int i = 0; i < autores.size(); i++) {
-                AutorEntity autor = autores.get(i);
-                System.out.printf("%d. 👤 %s%n", (i + 1), autor.getNombre());
-                System.out.printf("   📅 %s%n", autor.getPeriodoVida());
-                System.out.printf("   📚 Libros registrados: %d | 🆔 ID: %d%n",
-                        autor.getLibros().size(), autor.getId());
-                System.out.println("   " + "─".repeat(70));
+            int mostrados = 0;
+            while (paginas.hasNext()) {
+                for (ResumenAutor autor : paginas.next()) {
+                    mostrados++;
+                    System.out.printf("%d. 👤 %s%n", mostrados, autor.nombre());
+                    System.out.printf("   📅 %s%n", autor.periodoVida());
+                    System.out.printf("   📚 Libros registrados: %d | 🆔 ID: %d%n",
+                            autor.cantidadLibros(), autor.id());
+                    System.out.println("   " + "─".repeat(70));
+                }
+
+                if (paginas.hasNext() && !verSiguientePagina()) {
+                    System.out.printf("\n📊 Mostrados: %d autores%n", mostrados);
+                    return;
+                }
             }
 
-            System.out.printf("\n📊 Total: %d autores registrados%n", autores.size());
+            System.out.printf("\n📊 Total: %d autores registrados%n", mostrados);
 
         } catch (Exception e) {
             System.out.println("❌ Error al consultar base de datos: " + e.getMessage());
@@ -519,6 +581,14 @@ public class Principal {
         };
     }
 
+    /**
+     * En los listados paginados: ENTER muestra la página siguiente, 0 vuelve
+     */
+    private boolean verSiguientePagina() {
+        System.out.print("\n⏎ ENTER para ver más, 0 para volver al menú: ");
+        return !teclado.nextLine().trim().equals("0");
+    }
+
     private void esperarEnter() {
         System.out.println("\n⏎ Presione ENTER para continuar...");
         teclado.nextLine();
@@ -1,22 +1,70 @@
 package com.alura.literalura.repository;
 
+import com.alura.literalura.dto.ResumenAutor;
 import com.alura.literalura.entity.AutorEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
+@Transactional(readOnly = true)
 public interface AutorRepository extends JpaRepository<AutorEntity, Long> {
 
+    String SELECT_RESUMEN = "SELECT new com.alura.literalura.dto.ResumenAutor(a.id, a.nombre, a.anoNacimiento, " +
+            "a.anoFallecimiento, (SELECT COUNT(l) FROM LibroEntity l WHERE l.autor = a)) FROM AutorEntity a ";
+
+    String NOMBRE_NORMALIZADO = "lower(regexp_replace(btrim(nombre), '\\s+', ' ', 'g'))";
+
     // Buscar autor por nombre exacto
     Optional<AutorEntity> findByNombre(String nombre);
 
-    // Buscar autores por nombre que contenga texto (case insensitive)
-    List<AutorEntity> findByNombreContainingIgnoreCase(String nombre);
+    // Pares (nombre, id) de varios autores en una sola consulta (caché de autores)
+    @Query("SELECT a.nombre, a.id FROM AutorEntity a WHERE a.nombre IN :nombres")
+    List<Object[]> findIdsPorNombre(@Param("nombres") Collection<String> nombres);
+
+    // Insertar el autor o, si el nombre ya existe, completar sus años; devuelve el ID
+    // en ambos casos. Cada llamada consume un valor de autores_seq (un bloque del
+    // optimizador pooled de Hibernate), que no se solapa con los IDs de persist
+    @Transactional
+    @Query(value = "INSERT INTO autores (id, nombre, ano_nacimiento, ano_fallecimiento) " +
+                   "VALUES (nextval('autores_seq'), :#{#autor.nombre}, " +
+                   "CAST(:#{#autor.anoNacimiento} AS INTEGER), CAST(:#{#autor.anoFallecimiento} AS INTEGER)) " +
+                   "ON CONFLICT (nombre) DO UPDATE SET " +
+                   "ano_nacimiento = COALESCE(EXCLUDED.ano_nacimiento, autores.ano_nacimiento), " +
+                   "ano_fallecimiento = COALESCE(EXCLUDED.ano_fallecimiento, autores.ano_fallecimiento) " +
+                   "RETURNING id", nativeQuery = true)
+    Long upsertPorNombre(@Param("autor") AutorEntity autor);
+
+    // upsertPorNombre de varios autores en una sola sentencia (persistencia masiva):
+    // una fila (nombre, id, insertado) por nombre. Los arreglos van alineados y sin
+    // nombres repetidos; el orden por nombre evita interbloqueos entre ingestas
+    @Transactional
+    @Query(value = "INSERT INTO autores (id, nombre, ano_nacimiento, ano_fallecimiento) " +
+                   "SELECT nextval('autores_seq'), t.nombre, t.nacimiento, t.fallecimiento " +
+                   "FROM unnest(CAST(:nombres AS VARCHAR[]), CAST(:nacimientos AS INTEGER[]), " +
+                   "CAST(:fallecimientos AS INTEGER[])) AS t(nombre, nacimiento, fallecimiento) ORDER BY t.nombre " +
+                   "ON CONFLICT (nombre) DO UPDATE SET " +
+                   "ano_nacimiento = COALESCE(EXCLUDED.ano_nacimiento, autores.ano_nacimiento), " +
+                   "ano_fallecimiento = COALESCE(EXCLUDED.ano_fallecimiento, autores.ano_fallecimiento) " +
+                   "RETURNING nombre, id, (xmax = 0)", nativeQuery = true)
+    List<Object[]> upsertPorNombres(@Param("nombres") String[] nombres, @Param("nacimientos") Integer[] nacimientos,
+            @Param("fallecimientos") Integer[] fallecimientos);
+
+    // Buscar autores por nombre que contenga texto (case insensitive). ILIKE sobre
+    // la columna usa el índice de trigramas (lower(x) LIKE ... no lo usaría)
+    @Query("SELECT a FROM AutorEntity a WHERE a.nombre ILIKE CONCAT('%', :#{escape(#nombre)}, '%') ESCAPE :#{escapeCharacter()}")
+    List<AutorEntity> findByNombreContainingIgnoreCase(@Param("nombre") String nombre);
 
     // ===== DERIVED QUERIES PARA AUTORES VIVOS =====
 
@@ -24,6 +72,10 @@ public interface AutorRepository extends JpaRepository<AutorEntity, Long> {
     @Query("SELECT a FROM AutorEntity a WHERE a.anoNacimiento <= :ano AND (a.anoFallecimiento IS NULL OR a.anoFallecimiento >= :ano)")
     List<AutorEntity> findAutoresVivosEnAno(@Param("ano") Integer ano);
 
+    // Cantidad de autores vivos en un año (sin cargar las entidades)
+    @Query("SELECT COUNT(a) FROM AutorEntity a WHERE a.anoNacimiento <= :ano AND (a.anoFallecimiento IS NULL OR a.anoFallecimiento >= :ano)")
+    long countAutoresVivosEnAno(@Param("ano") Integer ano);
+
     // Autores que nacieron en un año específico
     List<AutorEntity> findByAnoNacimiento(Integer anoNacimiento);
 
@@ -60,10 +112,67 @@ public interface AutorRepository extends JpaRepository<AutorEntity, Long> {
     @Query("SELECT DISTINCT a FROM AutorEntity a WHERE SIZE(a.libros) > 0")
     List<AutorEntity> findAutoresConLibros();
 
-    // Buscar autores ordenados por nombre
-    List<AutorEntity> findAllByOrderByNombreAsc();
-
-    // Contar autores por siglo de nacimiento
+    // ===== INTEGRIDAD (una sentencia por regla; las reparaciones, por lotes) =====
+
+    // Contar autores sin ningún libro registrado (validación de integridad)
+    @Query("SELECT COUNT(a) FROM AutorEntity a WHERE NOT EXISTS (SELECT 1 FROM LibroEntity l WHERE l.autor = a)")
+    long countAutoresSinLibros();
+
+    // Eliminar un lote de autores sin libros
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM autores WHERE id IN (SELECT a.id FROM autores a " +
+                   "WHERE NOT EXISTS (SELECT 1 FROM libros l WHERE l.autor_id = a.id) LIMIT :lote)", nativeQuery = true)
+    int eliminarAutoresSinLibros(@Param("lote") int lote);
+
+    // Contar autores que nacieron después de morir
+    @Query("SELECT COUNT(a) FROM AutorEntity a WHERE a.anoNacimiento > a.anoFallecimiento")
+    long countAutoresConFechasInvertidas();
+
+    // Borrar los años de un lote de autores con fechas invertidas: no se sabe cuál
+    // de los dos está mal (un upsert posterior desde la API puede completarlos)
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE autores SET ano_nacimiento = NULL, ano_fallecimiento = NULL WHERE id IN " +
+                   "(SELECT id FROM autores WHERE ano_nacimiento > ano_fallecimiento LIMIT :lote)", nativeQuery = true)
+    int borrarFechasInvertidas(@Param("lote") int lote);
+
+    // Contar autores sobrantes por nombre normalizado repetido (sin espacios de más
+    // y en minúsculas): todos los de cada grupo menos uno
+    @Query(value = "SELECT COALESCE(SUM(cantidad - 1), 0) FROM (SELECT COUNT(*) AS cantidad FROM autores " +
+                   "GROUP BY " + NOMBRE_NORMALIZADO + " HAVING COUNT(*) > 1) g", nativeQuery = true)
+    long countAutoresDuplicados();
+
+    // Fusionar un lote de autores duplicados con el de menor ID de su grupo: sus
+    // libros pasan a ese autor y los duplicados se eliminan, en una sola sentencia
+    @Transactional
+    @Modifying
+    @Query(value = "WITH duplicados AS (" +
+                   "    SELECT id, conservado FROM (SELECT id, MIN(id) OVER (PARTITION BY " + NOMBRE_NORMALIZADO + ") " +
+                   "    AS conservado FROM autores) d WHERE id <> conservado ORDER BY id LIMIT :lote), " +
+                   "movidos AS (UPDATE libros l SET autor_id = d.conservado FROM duplicados d WHERE l.autor_id = d.id) " +
+                   "DELETE FROM autores a USING duplicados d WHERE a.id = d.id", nativeQuery = true)
+    int fusionarAutoresDuplicados(@Param("lote") int lote);
+
+    // ===== RESÚMENES (nombre, años y cantidad de libros en una sola consulta) =====
+    // La cantidad es una subconsulta por autor (índice sobre libros.autor_id): sin
+    // GROUP BY sobre el join, la página sale del índice de nombre y respeta el límite
+
+    // Primera página de resúmenes por nombre (paginación por clave; el nombre es único)
+    @Query(SELECT_RESUMEN + "ORDER BY a.nombre")
+    List<ResumenAutor> findPaginaResumenesPorNombre(Limit limite);
+
+    // Página siguiente al último nombre visto
+    @Query(SELECT_RESUMEN + "WHERE a.nombre > :nombre ORDER BY a.nombre")
+    List<ResumenAutor> findPaginaResumenesPorNombreDespuesDe(@Param("nombre") String nombre, Limit limite);
+
+    // Autores vivos en un año, ordenados por nombre
+    @Query(SELECT_RESUMEN + "WHERE a.anoNacimiento <= :ano AND (a.anoFallecimiento IS NULL OR a.anoFallecimiento >= :ano) " +
+           "ORDER BY a.nombre")
+    List<ResumenAutor> findResumenesVivosEnAno(@Param("ano") Integer ano);
+
+    // Contar autores por siglo de nacimiento (cacheable)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT FLOOR(a.anoNacimiento/100) + 1 as siglo, COUNT(a) FROM AutorEntity a WHERE a.anoNacimiento IS NOT NULL GROUP BY FLOOR(a.anoNacimiento/100) + 1 ORDER BY siglo")
     List<Object[]> countAutoresPorSiglo();
 
@@ -0,0 +1,64 @@
+package com.alura.literalura.repository;
+
+import com.alura.literalura.dto.EstadisticasDescargas;
+import com.alura.literalura.entity.EstadisticaIdiomaEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Estadísticas por idioma y de descargas, leídas de la tabla que mantienen los
+ * triggers (una fila por idioma): el costo no depende del tamaño del catálogo.
+ * Todas son cacheables; NULLIF devuelve null para los libros sin idioma.
+ */
+@Repository
+@Transactional(readOnly = true)
+public interface EstadisticaIdiomaRepository extends JpaRepository<EstadisticaIdiomaEntity, String> {
+
+    // Contar libros por idioma (estadísticas completas)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT NULLIF(e.idioma, ''), e.cantidadLibros FROM EstadisticaIdiomaEntity e " +
+           "ORDER BY e.cantidadLibros DESC")
+    List<Object[]> countLibrosPorIdioma();
+
+    // Obtener idiomas únicos disponibles
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT NULLIF(e.idioma, '') FROM EstadisticaIdiomaEntity e ORDER BY e.idioma")
+    List<String> findIdiomasDisponibles();
+
+    // Estadísticas de descargas por idioma: idioma, libros con descargas, suma, promedio, máximo
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT NULLIF(e.idioma, ''), e.librosConDescargas, e.sumaDescargas, " +
+           "CAST(e.sumaDescargas AS Double) / e.librosConDescargas, e.maximoDescargas " +
+           "FROM EstadisticaIdiomaEntity e WHERE e.librosConDescargas > 0 " +
+           "ORDER BY e.librosConDescargas DESC")
+    List<Object[]> getEstadisticasDescargasPorIdioma();
+
+    // Estadísticas generales de descargas: mínimo, máximo, promedio
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT MIN(e.minimoDescargas), MAX(e.maximoDescargas), " +
+           "CAST(SUM(e.sumaDescargas) AS Double) / SUM(e.librosConDescargas) " +
+           "FROM EstadisticaIdiomaEntity e WHERE e.librosConDescargas > 0")
+    List<Object[]> getEstadisticasDescargas();
+
+    // Estadísticas de descargas de un idioma (todo en cero si no tiene libros)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new com.alura.literalura.dto.EstadisticasDescargas(" +
+           "COALESCE(SUM(e.cantidadLibros), 0), COALESCE(SUM(e.librosConDescargas), 0), SUM(e.sumaDescargas), " +
+           "CAST(SUM(e.sumaDescargas) AS Double) / NULLIF(SUM(e.librosConDescargas), 0), " +
+           "MAX(e.maximoDescargas), MIN(e.minimoDescargas)) " +
+           "FROM EstadisticaIdiomaEntity e WHERE e.idioma = :idioma")
+    EstadisticasDescargas findEstadisticasDescargasDeIdioma(@Param("idioma") String idioma);
+
+    // Total de libros del catálogo (suma de los idiomas, sin recorrer libros)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT COALESCE(SUM(e.cantidadLibros), 0) FROM EstadisticaIdiomaEntity e")
+    long contarLibros();
+}
@@ -1,96 +1,183 @@
 package com.alura.literalura.repository;
 
+import com.alura.literalura.dto.ResumenLibro;
 import com.alura.literalura.entity.LibroEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
+@Transactional(readOnly = true)
 public interface LibroRepository extends JpaRepository<LibroEntity, Long> {
+
+    // Proyección de listados: solo las columnas que se muestran, sin entidades gestionadas.
+    // LEFT JOIN: los libros sin autor también se listan
+    String SELECT_RESUMEN = "SELECT new com.alura.literalura.dto.ResumenLibro(" +
+            "l.id, l.titulo, a.nombre, l.idioma, l.numeroDescargas) FROM LibroEntity l LEFT JOIN l.autor a ";
+
+    // Título sin espacios de más y en minúsculas (índice de expresión de V8)
+    String TITULO_NORMALIZADO = "lower(regexp_replace(btrim(titulo), '\\s+', ' ', 'g'))";
     
     // Buscar libro por título exacto
     Optional<LibroEntity> findByTitulo(String titulo);
-    
-    // Buscar libros por título que contenga texto (case insensitive)
-    List<LibroEntity> findByTituloContainingIgnoreCase(String titulo);
-    
+
+    // Buscar libro por título exacto sin distinguir mayúsculas ni espacios (el de menor ID si hay varios)
+    @Query(value = "SELECT * FROM libros WHERE " + TITULO_NORMALIZADO +
+                   " = lower(regexp_replace(btrim(:titulo), '\\s+', ' ', 'g')) ORDER BY id LIMIT 1", nativeQuery = true)
+    Optional<LibroEntity> findByTituloNormalizado(@Param("titulo") String titulo);
+    
+    // Buscar libros por título que contenga texto (case insensitive). ILIKE sobre
+    // la columna usa el índice de trigramas (lower(x) LIKE ... no lo usaría)
+    @Query("SELECT l FROM LibroEntity l WHERE l.titulo ILIKE CONCAT('%', :#{escape(#titulo)}, '%') ESCAPE :#{escapeCharacter()}")
+    List<LibroEntity> findByTituloContainingIgnoreCase(@Param("titulo") String titulo);
+    
+    // Búsqueda de texto completo en título y autor (columna busqueda, migración V4),
+    // ordenada por relevancia combinada con la popularidad (log de descargas)
+    @Query(value = "SELECT l.* FROM libros l, literalura_tsquery(:texto) q " +
+                   "WHERE l.busqueda @@ q " +
+                   "ORDER BY ts_rank(l.busqueda, q) * ln(2 + COALESCE(l.numero_descargas, 0)) DESC, l.id " +
+                   "LIMIT :limite", nativeQuery = true)
+    List<LibroEntity> buscarTextoCompleto(@Param("texto") String texto, @Param("limite") int limite);
+
     // ===== DERIVED QUERIES PARA IDIOMAS =====
     
-    // Buscar libros por idioma específico
-    List<LibroEntity> findByIdioma(String idioma);
-    
-    // Buscar libros por idioma ordenados por número de descargas (descendente)
-    List<LibroEntity> findByIdiomaOrderByNumeroDescargasDesc(String idioma);
-    
-    // Buscar libros por idioma ordenados por título
-    List<LibroEntity> findByIdiomaOrderByTituloAsc(String idioma);
-    
     // Contar libros por idioma específico
     Long countByIdioma(String idioma);
     
-    // Buscar libros en inglés
-    @Query("SELECT l FROM LibroEntity l WHERE l.idioma = 'en' ORDER BY l.numeroDescargas DESC")
-    List<LibroEntity> findLibrosEnInglesOrdenadosPorDescargas();
-    
-    // Buscar libros en español
-    @Query("SELECT l FROM LibroEntity l WHERE l.idioma = 'es' ORDER BY l.numeroDescargas DESC")
-    List<LibroEntity> findLibrosEnEspanolOrdenadosPorDescargas();
-    
-    // Buscar libros en francés
-    @Query("SELECT l FROM LibroEntity l WHERE l.idioma = 'fr' ORDER BY l.numeroDescargas DESC")
-    List<LibroEntity> findLibrosEnFrancesOrdenadosPorDescargas();
-    
-    // Buscar libros en portugués
-    @Query("SELECT l FROM LibroEntity l WHERE l.idioma = 'pt' ORDER BY l.numeroDescargas DESC")
-    List<LibroEntity> findLibrosEnPortuguesOrdenadosPorDescargas();
-    
-    // ===== CONSULTAS PARA ESTADÍSTICAS =====
-    
-    // Contar libros por idioma (estadísticas completas)
-    @Query("SELECT l.idioma, COUNT(l) FROM LibroEntity l GROUP BY l.idioma ORDER BY COUNT(l) DESC")
-    List<Object[]> countLibrosPorIdioma();
-    
-    // Obtener idiomas únicos disponibles
-    @Query("SELECT DISTINCT l.idioma FROM LibroEntity l ORDER BY l.idioma")
-    List<String> findIdiomasDisponibles();
-    
-    // Estadísticas de descargas por idioma
-    @Query("SELECT l.idioma, COUNT(l), SUM(l.numeroDescargas), AVG(l.numeroDescargas), MAX(l.numeroDescargas) " +
-           "FROM LibroEntity l WHERE l.numeroDescargas IS NOT NULL " +
-           "GROUP BY l.idioma ORDER BY COUNT(l) DESC")
-    List<Object[]> getEstadisticasDescargasPorIdioma();
-    
-    // ===== MÉTODOS FALTANTES =====
-    
-    // Obtener estadísticas generales de descargas
-    @Query("SELECT MIN(l.numeroDescargas), MAX(l.numeroDescargas), AVG(l.numeroDescargas) " +
-           "FROM LibroEntity l WHERE l.numeroDescargas IS NOT NULL")
-    List<Object[]> getEstadisticasDescargas();
+    // Las estadísticas por idioma y de descargas se leen de EstadisticaIdiomaRepository
+    // (tabla mantenida por triggers), sin agrupar toda la tabla libros
     
     // Buscar libros por ID del autor
     List<LibroEntity> findByAutorId(Long autorId);
+
+    // Pares (autor_id, título) de varios autores en una sola consulta
+    @Query("SELECT l.autor.id, l.titulo FROM LibroEntity l WHERE l.autor.id IN :autorIds ORDER BY l.titulo")
+    List<Object[]> findTitulosPorAutores(@Param("autorIds") Collection<Long> autorIds);
     
     // ===== OTROS MÉTODOS =====
     
-    // Buscar libros por autor
-    List<LibroEntity> findByAutorNombreContainingIgnoreCase(String nombreAutor);
+    // Buscar libros por autor (índice de trigramas sobre autores.nombre)
+    @Query("SELECT l FROM LibroEntity l WHERE l.autor.nombre ILIKE CONCAT('%', :#{escape(#nombreAutor)}, '%') ESCAPE :#{escapeCharacter()}")
+    List<LibroEntity> findByAutorNombreContainingIgnoreCase(@Param("nombreAutor") String nombreAutor);
     
     // Buscar libros más descargados
     List<LibroEntity> findTop10ByOrderByNumeroDescargasDesc();
     
+    // Contar libros cuyo autor no existe (validación de integridad; con la clave
+    // foránea de V1 solo aparecen en bases creadas antes sin ella). Los que no
+    // tienen autor en Gutendex (autor_id nulo) son válidos y no se cuentan
+    @Query(value = "SELECT COUNT(*) FROM libros l WHERE l.autor_id IS NOT NULL " +
+                   "AND NOT EXISTS (SELECT 1 FROM autores a WHERE a.id = l.autor_id)", nativeQuery = true)
+    long countLibrosConAutorInexistente();
+
+    // Eliminar un lote de libros cuyo autor no existe; devuelve cuántos se eliminaron
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM libros WHERE id IN (SELECT l.id FROM libros l WHERE l.autor_id IS NOT NULL " +
+                   "AND NOT EXISTS (SELECT 1 FROM autores a WHERE a.id = l.autor_id) LIMIT :lote)", nativeQuery = true)
+    int eliminarLibrosConAutorInexistente(@Param("lote") int lote);
+
     // Verificar si existe libro por ID
     boolean existsById(Long id);
-    
-    // Buscar todos los libros ordenados por título
-    List<LibroEntity> findAllByOrderByTituloAsc();
-    
+
+    // Insertar el libro o, si el ID ya existe, refrescar sus descargas en la misma
+    // sentencia (segura ante ingestas en paralelo). Devuelve true si fue un INSERT.
+    // El autor, si lo hay, debe tener ID; sin autor (Gutendex no informa ninguno)
+    // autor_id queda nulo. Los CAST tipan los parámetros nulos para PostgreSQL
+    @Transactional
+    @Query(value = "INSERT INTO libros (id, titulo, autor_id, idioma, numero_descargas, url_descarga) " +
+                   "VALUES (:#{#libro.id}, :#{#libro.titulo}, CAST(:#{#libro.autor?.id} AS BIGINT), " +
+                   "CAST(:#{#libro.idioma} AS VARCHAR), CAST(:#{#libro.numeroDescargas} AS INTEGER), " +
+                   "CAST(:#{#libro.urlDescarga} AS VARCHAR)) " +
+                   "ON CONFLICT (id) DO UPDATE SET numero_descargas = EXCLUDED.numero_descargas " +
+                   "RETURNING (xmax = 0)", nativeQuery = true)
+    boolean upsert(@Param("libro") LibroEntity libro);
+
+    // upsert de un lote entero en una sola sentencia (persistencia masiva): devuelve
+    // un booleano por fila, true si fue un INSERT. Los arreglos van alineados y sin
+    // IDs repetidos (ON CONFLICT no admite tocar dos veces la misma fila)
+    @Transactional
+    @Query(value = "INSERT INTO libros (id, titulo, autor_id, idioma, numero_descargas, url_descarga) " +
+                   "SELECT * FROM unnest(CAST(:ids AS BIGINT[]), CAST(:titulos AS VARCHAR[]), " +
+                   "CAST(:autorIds AS BIGINT[]), CAST(:idiomas AS VARCHAR[]), CAST(:descargas AS INTEGER[]), " +
+                   "CAST(:urls AS VARCHAR[])) " +
+                   "ON CONFLICT (id) DO UPDATE SET numero_descargas = EXCLUDED.numero_descargas " +
+                   "RETURNING (xmax = 0)", nativeQuery = true)
+    List<Boolean> upsertLote(@Param("ids") Long[] ids, @Param("titulos") String[] titulos,
+            @Param("autorIds") Long[] autorIds, @Param("idiomas") String[] idiomas,
+            @Param("descargas") Integer[] descargas, @Param("urls") String[] urls);
+    
+    // ===== RECORRIDOS COMPLETOS (streaming) =====
+    // Cursor del servidor: PostgreSQL entrega las filas de a 500 (el fetch size
+    // solo se respeta dentro de una transacción) y, por ser de solo lectura,
+    // Hibernate no guarda copias para detectar cambios. Cerrar el Stream al terminar
+
+    // Todos los libros con su autor, por ID. CacheMode GET: un recorrido completo no
+    // debe desplazar de la caché de segundo nivel a los autores consultados a menudo
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "GET")
+    })
+    @Query("SELECT l FROM LibroEntity l LEFT JOIN FETCH l.autor ORDER BY l.id")
+    Stream<LibroEntity> streamTodosConAutor();
+
+    // ===== PAGINACIÓN POR CLAVE (keyset) =====
+    // Cada página sigue al último (clave, id) visto: el costo no crece con el número
+    // de página como con OFFSET
+
+    // Primera página por título (el ID desempata títulos repetidos)
+    @Query(SELECT_RESUMEN + "ORDER BY l.titulo, l.id")
+    List<ResumenLibro> findResumenesPorTitulo(Limit limite);
+
+    // Página siguiente a (titulo, id)
+    @Query(SELECT_RESUMEN + "WHERE (l.titulo, l.id) > (:titulo, :id) ORDER BY l.titulo, l.id")
+    List<ResumenLibro> findResumenesPorTituloDespuesDe(@Param("titulo") String titulo, @Param("id") Long id, Limit limite);
+
+    // Primera página de un idioma, más descargados primero (sin dato cuenta como 0)
+    @Query(SELECT_RESUMEN + "WHERE l.idioma = :idioma ORDER BY COALESCE(l.numeroDescargas, 0) DESC, l.id DESC")
+    List<ResumenLibro> findResumenesPorIdioma(@Param("idioma") String idioma, Limit limite);
+
+    // Página siguiente a (descargas, id) dentro de un idioma
+    @Query(SELECT_RESUMEN + "WHERE l.idioma = :idioma AND (COALESCE(l.numeroDescargas, 0), l.id) < (:descargas, :id) " +
+           "ORDER BY COALESCE(l.numeroDescargas, 0) DESC, l.id DESC")
+    List<ResumenLibro> findResumenesPorIdiomaDespuesDe(@Param("idioma") String idioma, @Param("descargas") Integer descargas,
+            @Param("id") Long id, Limit limite);
+
+    // ===== PROYECCIONES PARA CONSULTAS Y ESTADÍSTICAS =====
+
+    // Títulos que contienen un texto (índice de trigramas)
+    @Query(SELECT_RESUMEN + "WHERE l.titulo ILIKE CONCAT('%', :#{escape(#titulo)}, '%') ESCAPE :#{escapeCharacter()} " +
+           "ORDER BY l.titulo")
+    List<ResumenLibro> findResumenesPorTituloConteniendo(@Param("titulo") String titulo);
+
+    // Libros de autores cuyo nombre contiene un texto (índice de trigramas)
+    @Query(SELECT_RESUMEN + "WHERE a.nombre ILIKE CONCAT('%', :#{escape(#nombreAutor)}, '%') ESCAPE :#{escapeCharacter()} " +
+           "ORDER BY a.nombre, l.titulo")
+    List<ResumenLibro> findResumenesPorAutorConteniendo(@Param("nombreAutor") String nombreAutor);
+
+    // Más descargados del catálogo
+    @Query(SELECT_RESUMEN + "ORDER BY COALESCE(l.numeroDescargas, 0) DESC, l.id DESC")
+    List<ResumenLibro> findResumenesMasDescargados(Limit limite);
+
     // Buscar libros con más de X descargas
     List<LibroEntity> findByNumeroDescargasGreaterThanOrderByNumeroDescargasDesc(Integer numeroDescargas);
     
     // Buscar libros por autor y idioma
-    List<LibroEntity> findByAutorNombreContainingIgnoreCaseAndIdioma(String nombreAutor, String idioma);
+    @Query("SELECT l FROM LibroEntity l WHERE l.autor.nombre ILIKE CONCAT('%', :#{escape(#nombreAutor)}, '%') ESCAPE :#{escapeCharacter()} " +
+           "AND l.idioma = :idioma")
+    List<LibroEntity> findByAutorNombreContainingIgnoreCaseAndIdioma(@Param("nombreAutor") String nombreAutor,
+            @Param("idioma") String idioma);
 }
@@ -1,24 +1,35 @@
 package com.alura.literalura.service;
 
+import com.alura.literalura.dto.ResumenAutor;
 import com.alura.literalura.entity.AutorEntity;
 import com.alura.literalura.repository.AutorRepository;
+import com.alura.literalura.repository.LibroRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.Year;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 public class AutoresVivosService {
 
+    private static final int AUTORES_POR_CONSULTA = 1000;
+
     @Autowired
     private AutorRepository autorRepository;
 
+    @Autowired
+    private LibroRepository libroRepository;
+
     /**
-     * FUNCIONALIDAD PRINCIPAL: Listar autores vivos en determinado año
+     * FUNCIONALIDAD PRINCIPAL: Listar autores vivos en determinado año, con su
+     * cantidad de libros (una sola consulta agregada)
      */
-    public List<AutorEntity> listarAutoresVivosEnAno(Integer ano) {
+    public List<ResumenAutor> listarAutoresVivosEnAno(Integer ano) {
         // Validar año
         if (!esAnoValido(ano)) {
             throw new IllegalArgumentException("Año inválido: " + ano);
@@ -26,8 +37,7 @@ public class AutoresVivosService {
 
         System.out.println("📅 Buscando autores vivos en el año " + ano + "...");
 
-        // Usar derived query
-        List<AutorEntity> autoresVivos = autorRepository.findAutoresVivosEnAno(ano);
+        List<ResumenAutor> autoresVivos = autorRepository.findResumenesVivosEnAno(ano);
 
         System.out.println("👥 Autores encontrados: " + autoresVivos.size());
 
@@ -39,7 +49,7 @@ public class AutoresVivosService {
      */
     public void mostrarAutoresVivosDetallado(Integer ano) {
         try {
-            List<AutorEntity> autores = listarAutoresVivosEnAno(ano);
+            List<ResumenAutor> autores = listarAutoresVivosEnAno(ano);
 
             if (autores.isEmpty()) {
                 System.out.println("📭 No se encontraron autores vivos en el año " + ano);
@@ -47,33 +57,34 @@ public class AutoresVivosService {
                 return;
             }
 
+            Map<Long, List<String>> titulosPorAutor = obtenerTitulosPorAutor(autores);
+
             System.out.println("═".repeat(80));
             System.out.println("👥 AUTORES VIVOS EN " + ano);
             System.out.println("═".repeat(80));
 
             for (int i = 0; i < autores.size(); i++) {
-                AutorEntity autor = autores.get(i);
-                System.out.printf("%d. 👤 %s%n", (i + 1), autor.getNombre());
+                ResumenAutor autor = autores.get(i);
+                System.out.printf("%d. 👤 %s%n", (i + 1), autor.nombre());
                 System.out.printf("   📅 Nacimiento: %s%n",
-                        autor.getAnoNacimiento() != null ? autor.getAnoNacimiento() : "Desconocido");
+                        autor.anoNacimiento() != null ? autor.anoNacimiento() : "Desconocido");
                 System.out.printf("   ⚰️ Fallecimiento: %s%n",
-                        autor.getAnoFallecimiento() != null ? autor.getAnoFallecimiento() : "Vivo");
+                        autor.anoFallecimiento() != null ? autor.anoFallecimiento() : "Vivo");
 
                 // Calcular edad en el año consultado
-                if (autor.getAnoNacimiento() != null) {
-                    int edadEnAno = ano - autor.getAnoNacimiento();
+                if (autor.anoNacimiento() != null) {
+                    int edadEnAno = ano - autor.anoNacimiento();
                     System.out.printf("   🎂 Edad en %d: %d años%n", ano, edadEnAno);
                 }
 
                 // Mostrar libros si los tiene
-                if (autor.getLibros() != null && !autor.getLibros().isEmpty()) {
-                    System.out.printf("   📚 Libros registrados: %d%n", autor.getLibros().size());
-                    if (autor.getLibros().size() <= 3) {
-                        autor.getLibros().forEach(libro -> System.out.printf("      📖 %s%n", libro.getTitulo()));
+                List<String> titulos = titulosPorAutor.getOrDefault(autor.id(), List.of());
+                if (!titulos.isEmpty()) {
+                    System.out.printf("   📚 Libros registrados: %d%n", titulos.size());
+                    if (titulos.size() <= 3) {
+                        titulos.forEach(titulo -> System.out.printf("      📖 %s%n", titulo));
                     } else {
-                        System.out.printf("      📖 %s (y %d más)%n",
-                                autor.getLibros().get(0).getTitulo(),
-                                autor.getLibros().size() - 1);
+                        System.out.printf("      📖 %s (y %d más)%n", titulos.get(0), titulos.size() - 1);
                     }
                 }
 
@@ -91,6 +102,27 @@ public class AutoresVivosService {
         }
     }
 
+    /**
+     * Títulos de los libros de varios autores con una sola consulta (en lugar de
+     * recorrer la colección perezosa de cada autor)
+     */
+    private Map<Long, List<String>> obtenerTitulosPorAutor(List<ResumenAutor> autores) {
+        List<Long> ids = autores.stream()
+                .filter(autor -> autor.cantidadLibros() > 0)
+                .map(ResumenAutor::id)
+                .collect(Collectors.toList());
+
+        // De a AUTORES_POR_CONSULTA IDs, para no pasar el límite de parámetros de JDBC
+        Map<Long, List<String>> titulos = new HashMap<>();
+        for (int inicio = 0; inicio < ids.size(); inicio += AUTORES_POR_CONSULTA) {
+            List<Long> grupo = ids.subList(inicio, Math.min(inicio + AUTORES_POR_CONSULTA, ids.size()));
+            for (Object[] fila : libroRepository.findTitulosPorAutores(grupo)) {
+                titulos.computeIfAbsent((Long) fila[0], id -> new ArrayList<>()).add((String) fila[1]);
+            }
+        }
+        return titulos;
+    }
+
     /**
      * Validar si un año es válido
      */
@@ -183,43 +215,43 @@ public class AutoresVivosService {
     /**
      * Mostrar estadísticas del grupo de autores
      */
-    private void mostrarEstadisticasGrupo(List<AutorEntity> autores, Integer ano) {
+    private void mostrarEstadisticasGrupo(List<ResumenAutor> autores, Integer ano) {
         System.out.println("\n📊 ESTADÍSTICAS DEL GRUPO:");
 
         // Edad promedio en el año consultado
         double edadPromedio = autores.stream()
-                .filter(autor -> autor.getAnoNacimiento() != null)
-                .mapToInt(autor -> ano - autor.getAnoNacimiento())
+                .filter(autor -> autor.anoNacimiento() != null)
+                .mapToInt(autor -> ano - autor.anoNacimiento())
                 .average()
                 .orElse(0.0);
 
         // Autor más joven y más viejo en ese año
         var autorMasJoven = autores.stream()
-                .filter(autor -> autor.getAnoNacimiento() != null)
-                .min((a1, a2) -> Integer.compare(a2.getAnoNacimiento(), a1.getAnoNacimiento()));
+                .filter(autor -> autor.anoNacimiento() != null)
+                .min((a1, a2) -> Integer.compare(a2.anoNacimiento(), a1.anoNacimiento()));
 
         var autorMasViejo = autores.stream()
-                .filter(autor -> autor.getAnoNacimiento() != null)
-                .max((a1, a2) -> Integer.compare(a2.getAnoNacimiento(), a1.getAnoNacimiento()));
+                .filter(autor -> autor.anoNacimiento() != null)
+                .max((a1, a2) -> Integer.compare(a2.anoNacimiento(), a1.anoNacimiento()));
 
-        // Total de libros del grupo
-        int totalLibros = autores.stream()
-                .mapToInt(autor -> autor.getLibros() != null ? autor.getLibros().size() : 0)
+        // Total de libros del grupo (ya contados por la consulta)
+        long totalLibros = autores.stream()
+                .mapToLong(ResumenAutor::cantidadLibros)
                 .sum();
 
         System.out.printf("🎂 Edad promedio en %d: %.1f años%n", ano, edadPromedio);
         System.out.printf("📚 Total de libros del grupo: %d%n", totalLibros);
 
         if (autorMasJoven.isPresent()) {
-            AutorEntity joven = autorMasJoven.get();
-            int edadJoven = ano - joven.getAnoNacimiento();
-            System.out.printf("👶 Más joven: %s (%d años)%n", joven.getNombre(), edadJoven);
+            ResumenAutor joven = autorMasJoven.get();
+            int edadJoven = ano - joven.anoNacimiento();
+            System.out.printf("👶 Más joven: %s (%d años)%n", joven.nombre(), edadJoven);
         }
 
         if (autorMasViejo.isPresent()) {
-            AutorEntity viejo = autorMasViejo.get();
-            int edadViejo = ano - viejo.getAnoNacimiento();
-            System.out.printf("👴 Más viejo: %s (%d años)%n", viejo.getNombre(), edadViejo);
+            ResumenAutor viejo = autorMasViejo.get();
+            int edadViejo = ano - viejo.anoNacimiento();
+            System.out.printf("👴 Más viejo: %s (%d años)%n", viejo.nombre(), edadViejo);
         }
     }
 
@@ -235,10 +267,10 @@ public class AutoresVivosService {
 
         for (Integer anoCercano : anosCercanos) {
             if (esAnoValido(anoCercano)) {
-                List<AutorEntity> autoresCercanos = autorRepository.findAutoresVivosEnAno(anoCercano);
-                if (!autoresCercanos.isEmpty()) {
+                long autoresCercanos = autorRepository.countAutoresVivosEnAno(anoCercano);
+                if (autoresCercanos > 0) {
                     System.out.printf("• Pruebe con el año %d (%d autores disponibles)%n",
-                            anoCercano, autoresCercanos.size());
+                            anoCercano, autoresCercanos);
                     break;
                 }
             }
@@ -0,0 +1,191 @@
+package com.alura.literalura.service;
+
+import com.alura.literalura.entity.AutorEntity;
+import com.alura.literalura.repository.AutorRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Component
+public class CacheAutores {
+
+    private static final int CAPACIDAD_POR_DEFECTO = 50_000;
+    private static final int NOMBRES_POR_CONSULTA = 1000;
+
+    @Autowired
+    private AutorRepository autorRepository;
+
+    @Autowired
+    private CacheSegundoNivel cacheSegundoNivel;
+
+    // nombre → id, en orden de acceso (LRU) y acotada a la capacidad
+    private final LinkedHashMap<String, Long> entradas;
+
+    private long aciertos;
+    private long fallos;
+    private long consultas;
+
+    public CacheAutores() {
+        this(CAPACIDAD_POR_DEFECTO);
+    }
+
+    public CacheAutores(int capacidad) {
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> masAntigua) {
+                return size() > capacidad;
+            }
+        };
+    }
+
+    /**
+     * Resolver los IDs de un lote de nombres: los que no están en memoria se
+     * buscan con una sola consulta IN. Los nombres sin autor registrado no
+     * aparecen en el mapa.
+     */
+    public Map<String, Long> precargar(Collection<String> nombres) {
+        Map<String, Long> ids = new HashMap<>();
+        List<String> faltantes = new ArrayList<>();
+
+        synchronized (this) {
+            for (String nombre : new LinkedHashSet<>(nombres)) {
+                Long id = entradas.get(nombre);
+                if (id != null) {
+                    ids.put(nombre, id);
+                    aciertos++;
+                } else {
+                    faltantes.add(nombre);
+                    fallos++;
+                }
+            }
+        }
+
+        for (int inicio = 0; inicio < faltantes.size(); inicio += NOMBRES_POR_CONSULTA) {
+            List<String> grupo = faltantes.subList(inicio, Math.min(inicio + NOMBRES_POR_CONSULTA, faltantes.size()));
+            synchronized (this) {
+                consultas++;
+            }
+            for (Object[] fila : autorRepository.findIdsPorNombre(grupo)) {
+                String nombre = (String) fila[0];
+                Long id = (Long) fila[1];
+                ids.put(nombre, id);
+                registrar(nombre, id);
+            }
+        }
+
+        return ids;
+    }
+
+    /**
+     * ID de un autor por nombre, consultando la base solo si no está en memoria
+     */
+    public Optional<Long> obtenerId(String nombre) {
+        return Optional.ofNullable(precargar(List.of(nombre)).get(nombre));
+    }
+
+    /**
+     * Devolver el autor a asociar a un libro nuevo: la misma instancia recibida
+     * con el ID asignado, sin cargarla de la base. Si no está registrado se crea
+     * con un upsert por nombre, así dos ingestas en paralelo no chocan.
+     */
+    public AutorEntity resolverAutor(AutorEntity autor) {
+        if (autor == null || autor.getNombre() == null) {
+            return null;
+        }
+
+        Optional<Long> id = obtenerId(autor.getNombre());
+        if (id.isPresent()) {
+            autor.setId(id.get());
+            return autor;
+        }
+
+        autor.setId(autorRepository.upsertPorNombre(autor));
+        cacheSegundoNivel.autorModificado(autor.getId());
+        registrar(autor.getNombre(), autor.getId());
+        System.out.println("👤 Autor persistido: " + autor.getNombre() + " con ID: " + autor.getId());
+        return autor;
+    }
+
+    /**
+     * Registrar un autor (write-through). Dentro de una transacción se espera al
+     * commit, para no guardar IDs de filas que podrían deshacerse.
+     */
+    public void registrar(String nombre, Long id) {
+        if (nombre == null || id == null) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    guardar(nombre, id);
+                }
+            });
+        } else {
+            guardar(nombre, id);
+        }
+    }
+
+    /**
+     * Olvidar un autor eliminado. Se quita ya y otra vez tras el commit, por si
+     * otro hilo lo volvió a leer antes de que el borrado fuera visible.
+     */
+    public void invalidar(String nombre) {
+        quitar(nombre);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int estado) {
+                    quitar(nombre);
+                }
+            });
+        }
+    }
+
+    public synchronized void limpiar() {
+        entradas.clear();
+    }
+
+    private synchronized void guardar(String nombre, Long id) {
+        entradas.put(nombre, id);
+    }
+
+    private synchronized void quitar(String nombre) {
+        entradas.remove(nombre);
+    }
+
+    public synchronized int getTamano() {
+        return entradas.size();
+    }
+
+    public synchronized long getAciertos() {
+        return aciertos;
+    }
+
+    public synchronized long getFallos() {
+        return fallos;
+    }
+
+    public synchronized long getConsultas() {
+        return consultas;
+    }
+
+    @Override
+    public synchronized String toString() {
+        long total = aciertos + fallos;
+        return String.format("👤 Caché de autores: %,d entradas, %,d aciertos / %,d búsquedas (%.1f%%), %,d consultas",
+                entradas.size(), aciertos, total, total > 0 ? aciertos * 100.0 / total : 0.0, consultas);
+    }
+}
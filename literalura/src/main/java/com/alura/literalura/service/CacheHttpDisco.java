@@ -0,0 +1,247 @@
+package com.alura.literalura.service;
+
+import com.alura.literalura.config.ApiConfig;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+@Component
+@Lazy
+public class CacheHttpDisco {
+
+    private final Path directorio;
+    private final long maxBytes;
+    private final Duration edadMaxima;
+
+    // Bytes de los cuerpos en disco; -1 hasta el primer recorrido del directorio
+    private long bytesEnDisco = -1;
+
+    public CacheHttpDisco() {
+        this(Paths.get(ApiConfig.DIRECTORIO_CACHE_HTTP));
+    }
+
+    public CacheHttpDisco(Path directorio) {
+        this(directorio, ApiConfig.MAX_BYTES_CACHE_HTTP, Duration.ofDays(ApiConfig.DIAS_MAXIMOS_CACHE_HTTP));
+    }
+
+    public CacheHttpDisco(Path directorio, long maxBytes, Duration edadMaxima) {
+        this.directorio = directorio;
+        this.maxBytes = maxBytes;
+        this.edadMaxima = edadMaxima;
+    }
+
+    /**
+     * Leer la entrada guardada para una URL (validadores y archivo del cuerpo)
+     */
+    public Optional<EntradaCache> leer(String url) {
+        String clave = calcularClave(url);
+        Path archivoMeta = directorio.resolve(clave + ".meta");
+        Path archivoCuerpo = directorio.resolve(clave + ".json");
+
+        if (!Files.exists(archivoMeta) || !Files.exists(archivoCuerpo)) {
+            return Optional.empty();
+        }
+
+        try (InputStream meta = Files.newInputStream(archivoMeta)) {
+            Properties propiedades = new Properties();
+            propiedades.load(meta);
+
+            // Protección ante colisiones de hash: la URL debe coincidir
+            if (!url.equals(propiedades.getProperty("url"))) {
+                return Optional.empty();
+            }
+
+            // Vencida: se descarta y la URL se pide de nuevo sin validadores
+            FileTime modificado = Files.getLastModifiedTime(archivoCuerpo);
+            if (vencida(modificado, Instant.now())) {
+                eliminarEntrada(archivoCuerpo);
+                return Optional.empty();
+            }
+
+            // Cada uso renueva la fecha: la poda elimina primero las usadas hace más tiempo
+            Files.setLastModifiedTime(archivoCuerpo, FileTime.from(Instant.now()));
+
+            // El cuerpo no se lee aquí: solo hace falta si el servidor responde 304
+            return Optional.of(new EntradaCache(archivoCuerpo,
+                    propiedades.getProperty("etag"),
+                    propiedades.getProperty("last-modified")));
+
+        } catch (IOException e) {
+            System.err.println("⚠️ No se pudo leer la caché para " + url + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Guardar una respuesta exitosa volcando su cuerpo directamente a disco, sin
+     * pasar por memoria, y devolver la entrada resultante para leerla después.
+     * Solo tiene sentido si el servidor envió algún validador (ETag o
+     * Last-Modified), porque sin él no es posible revalidar la entrada.
+     */
+    public EntradaCache guardarFlujo(String url, InputStream cuerpo, String etag, String ultimaModificacion)
+            throws IOException {
+        String clave = calcularClave(url);
+        Files.createDirectories(directorio);
+
+        Properties propiedades = new Properties();
+        propiedades.setProperty("url", url);
+        if (etag != null) {
+            propiedades.setProperty("etag", etag);
+        }
+        if (ultimaModificacion != null) {
+            propiedades.setProperty("last-modified", ultimaModificacion);
+        }
+
+        // El cuerpo se escribe antes que los metadatos: una entrada solo es
+        // válida cuando existen ambos archivos
+        Path archivoCuerpo = directorio.resolve(clave + ".json");
+        long tamanoAnterior = Files.exists(archivoCuerpo) ? Files.size(archivoCuerpo) : 0;
+        // Si la descarga se corta, el temporal no debe quedar ocupando espacio que la poda no ve
+        Path temporalCuerpo = Files.createTempFile(directorio, clave, ".tmp");
+        long tamano;
+        try (cuerpo) {
+            tamano = Files.copy(cuerpo, temporalCuerpo, StandardCopyOption.REPLACE_EXISTING);
+            mover(temporalCuerpo, archivoCuerpo);
+        } finally {
+            Files.deleteIfExists(temporalCuerpo);
+        }
+
+        Path temporalMeta = Files.createTempFile(directorio, clave, ".tmp");
+        try {
+            try (OutputStream salida = Files.newOutputStream(temporalMeta)) {
+                propiedades.store(salida, null);
+            }
+            mover(temporalMeta, directorio.resolve(clave + ".meta"));
+        } finally {
+            Files.deleteIfExists(temporalMeta);
+        }
+
+        registrarEscritura(tamano - tamanoAnterior);
+        return new EntradaCache(archivoCuerpo, etag, ultimaModificacion);
+    }
+
+    /**
+     * Llevar la cuenta de bytes en disco y podar al pasar el límite. La primera
+     * escritura recorre el directorio (y poda lo que haya quedado de otras ejecuciones)
+     */
+    private synchronized void registrarEscritura(long bytesAgregados) {
+        if (bytesEnDisco < 0) {
+            podar();
+        } else {
+            bytesEnDisco += bytesAgregados;
+            if (bytesEnDisco > maxBytes) {
+                podar();
+            }
+        }
+    }
+
+    /**
+     * Eliminar las entradas vencidas y, si aún se supera el límite, las usadas
+     * hace más tiempo hasta quedar en el 90 % (para no podar en cada escritura)
+     */
+    private synchronized void podar() {
+        List<ArchivoCuerpo> cuerpos = new ArrayList<>();
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            for (Path archivo : archivos.filter(a -> a.toString().endsWith(".json")).toList()) {
+                BasicFileAttributes atributos = Files.readAttributes(archivo, BasicFileAttributes.class);
+                cuerpos.add(new ArchivoCuerpo(archivo, atributos.size(), atributos.lastModifiedTime()));
+            }
+        } catch (IOException e) {
+            System.err.println("⚠️ No se pudo recorrer la caché HTTP: " + e.getMessage());
+            return;
+        }
+
+        cuerpos.sort(Comparator.comparing(ArchivoCuerpo::modificado));
+        long total = cuerpos.stream().mapToLong(ArchivoCuerpo::tamano).sum();
+        long objetivo = maxBytes / 10 * 9;
+        Instant ahora = Instant.now();
+        int eliminadas = 0;
+
+        for (ArchivoCuerpo cuerpo : cuerpos) {
+            if (total <= objetivo && !vencida(cuerpo.modificado(), ahora)) {
+                break;
+            }
+            eliminarEntrada(cuerpo.archivo());
+            total -= cuerpo.tamano();
+            eliminadas++;
+        }
+
+        bytesEnDisco = total;
+        if (eliminadas > 0) {
+            System.out.printf("🧹 Caché HTTP: %d entradas eliminadas, %,d bytes en disco%n", eliminadas, total);
+        }
+    }
+
+    private boolean vencida(FileTime modificado, Instant ahora) {
+        return modificado.toInstant().plus(edadMaxima).isBefore(ahora);
+    }
+
+    /**
+     * Borrar primero los metadatos: sin ellos la entrada ya no es válida
+     */
+    private void eliminarEntrada(Path archivoCuerpo) {
+        String nombre = archivoCuerpo.getFileName().toString();
+        Path archivoMeta = archivoCuerpo.resolveSibling(nombre.substring(0, nombre.length() - ".json".length()) + ".meta");
+        try {
+            Files.deleteIfExists(archivoMeta);
+            Files.deleteIfExists(archivoCuerpo);
+        } catch (IOException e) {
+            System.err.println("⚠️ No se pudo eliminar " + archivoCuerpo + " de la caché: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Mover atómicamente un archivo temporal, para que los lectores concurrentes
+     * nunca vean un archivo a medio escribir
+     */
+    private void mover(Path temporal, Path destino) throws IOException {
+        Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Nombre de archivo derivado de la URL (SHA-256 en hexadecimal)
+     */
+    private String calcularClave(String url) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(url.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private record ArchivoCuerpo(Path archivo, long tamano, FileTime modificado) {
+    }
+
+    public record EntradaCache(Path archivoCuerpo, String etag, String ultimaModificacion) {
+
+        public String leerCuerpo() throws IOException {
+            return Files.readString(archivoCuerpo, StandardCharsets.UTF_8);
+        }
+
+        public InputStream abrirCuerpo() throws IOException {
+            return Files.newInputStream(archivoCuerpo);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.alura.literalura.service;
+
+import com.alura.literalura.entity.AutorEntity;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Consumer;
+
+/**
+ * Invalidación de la caché de segundo nivel de Hibernate tras los upserts
+ * nativos. Los persist, merge y delete la mantienen solos; un INSERT ... ON
+ * CONFLICT en SQL no pasa por Hibernate, así que las consultas cacheadas sobre
+ * libros y autores (y la entidad autor actualizada) se descartan a mano.
+ */
+@Component
+public class CacheSegundoNivel {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Se insertaron o actualizaron libros: los agregados cacheados ya no valen
+     */
+    public void librosModificados() {
+        invalidar(Cache::evictQueryRegions);
+    }
+
+    /**
+     * Se insertó o completó un autor por upsert
+     */
+    public void autorModificado(Long autorId) {
+        invalidar(cache -> {
+            cache.evictEntityData(AutorEntity.class, autorId);
+            cache.evictQueryRegions();
+        });
+    }
+
+    /**
+     * Se eliminaron o fusionaron autores con SQL por lotes: se descarta todo
+     */
+    public void catalogoModificado() {
+        invalidar(Cache::evictAllRegions);
+    }
+
+    /**
+     * Se descarta ya y otra vez al terminar la transacción, por si otra sesión
+     * volvió a cachear los datos anteriores antes de que el cambio fuera visible
+     */
+    private void invalidar(Consumer<Cache> accion) {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        accion.accept(cache);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int estado) {
+                    accion.accept(cache);
+                }
+            });
+        }
+    }
+}
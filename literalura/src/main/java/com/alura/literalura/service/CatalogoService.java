@@ -1,18 +1,20 @@
 package com.alura.literalura.service;
 
-import com.alura.literalura.converter.LibroConverter;
-import com.alura.literalura.entity.AutorEntity;
+import com.alura.literalura.dto.ResumenAutor;
+import com.alura.literalura.dto.ResumenLibro;
 import com.alura.literalura.entity.LibroEntity;
 import com.alura.literalura.model.Libro;
 import com.alura.literalura.model.RespuestaLibros;
 import com.alura.literalura.repository.AutorRepository;
+import com.alura.literalura.repository.EstadisticaIdiomaRepository;
 import com.alura.literalura.repository.LibroRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.Optional;
 
 @Service
 @Transactional
@@ -21,17 +23,21 @@ public class CatalogoService {
     @Autowired
     private LibroRepository libroRepository;
 
+    @Autowired
+    private EstadisticaIdiomaRepository estadisticaIdiomaRepository;
+
     @Autowired
     private AutorRepository autorRepository;
 
     @Autowired
+    @Lazy
     private GutendxServiceMejorado gutendxService;
 
     @Autowired
     private ProcesadorDatos procesador;
 
     @Autowired
-    private LibroConverter libroConverter;
+    private PersistenciaService persistenciaService;
 
     /**
      * Buscar y guardar libro por título
@@ -50,24 +56,12 @@ public class CatalogoService {
             // Tomar el primer libro encontrado
             Libro libroDto = respuesta.getLibros().get(0);
 
-            // Verificar si ya existe en la base de datos
-            if (libroRepository.existsById(libroDto.getId())) {
-                System.out.println("⚠️ El libro ya está registrado en la base de datos");
-                return libroRepository.findById(libroDto.getId()).orElse(null);
-            }
-
             // Procesar y guardar el libro
             LibroEntity libroEntity = procesador.procesarLibroIndividual(libroDto);
 
             if (libroEntity != null) {
-                // Guardar o buscar autor existente
-                AutorEntity autorGuardado = guardarOBuscarAutor(libroEntity.getAutor());
-                libroEntity.setAutor(autorGuardado);
-
-                // Guardar libro
-                LibroEntity libroGuardado = libroRepository.save(libroEntity);
-                System.out.println("✅ Libro guardado exitosamente: " + libroGuardado.getTitulo());
-                return libroGuardado;
+                persistenciaService.guardarOActualizar(libroEntity);
+                return libroEntity;
             }
 
             return null;
@@ -78,47 +72,25 @@ public class CatalogoService {
         }
     }
 
-    /**
-     * Listar todos los libros registrados
-     */
-    public List<LibroEntity> listarTodosLosLibros() {
-        List<LibroEntity> libros = libroRepository.findAll();
-        System.out.println("📚 Total de libros registrados: " + libros.size());
-        return libros;
-    }
-
-    /**
-     * Listar todos los autores registrados
-     */
-    public List<AutorEntity> listarTodosLosAutores() {
-        List<AutorEntity> autores = autorRepository.findAll();
-        System.out.println("👥 Total de autores registrados: " + autores.size());
-        return autores;
-    }
+    // Los listados completos (libros por título o por idioma, autores) se recorren
+    // por páginas: ver los paginar* de PersistenciaService
 
     /**
      * Listar autores vivos en un año específico
      */
-    public List<AutorEntity> listarAutoresVivosEnAno(Integer ano) {
-        List<AutorEntity> autores = autorRepository.findAutoresVivosEnAno(ano);
+    @Transactional(readOnly = true)
+    public List<ResumenAutor> listarAutoresVivosEnAno(Integer ano) {
+        List<ResumenAutor> autores = autorRepository.findResumenesVivosEnAno(ano);
         System.out.println("👤 Autores vivos en " + ano + ": " + autores.size());
         return autores;
     }
 
-    /**
-     * Listar libros por idioma
-     */
-    public List<LibroEntity> listarLibrosPorIdioma(String idioma) {
-        List<LibroEntity> libros = libroRepository.findByIdioma(idioma.toLowerCase());
-        System.out.println("🌍 Libros en " + idioma + ": " + libros.size());
-        return libros;
-    }
-
     /**
      * Buscar libros por título en la base de datos
      */
-    public List<LibroEntity> buscarLibrosPorTitulo(String titulo) {
-        List<LibroEntity> libros = libroRepository.findByTituloContainingIgnoreCase(titulo);
+    @Transactional(readOnly = true)
+    public List<ResumenLibro> buscarLibrosPorTitulo(String titulo) {
+        List<ResumenLibro> libros = libroRepository.findResumenesPorTituloConteniendo(titulo);
         System.out.println("🔍 Libros encontrados con '" + titulo + "': " + libros.size());
         return libros;
     }
@@ -126,8 +98,9 @@ public class CatalogoService {
     /**
      * Buscar libros por autor en la base de datos
      */
-    public List<LibroEntity> buscarLibrosPorAutor(String nombreAutor) {
-        List<LibroEntity> libros = libroRepository.findByAutorNombreContainingIgnoreCase(nombreAutor);
+    @Transactional(readOnly = true)
+    public List<ResumenLibro> buscarLibrosPorAutor(String nombreAutor) {
+        List<ResumenLibro> libros = libroRepository.findResumenesPorAutorConteniendo(nombreAutor);
         System.out.println("👤 Libros del autor '" + nombreAutor + "': " + libros.size());
         return libros;
     }
@@ -135,8 +108,9 @@ public class CatalogoService {
     /**
      * Obtener top 10 libros más descargados
      */
-    public List<LibroEntity> obtenerTop10LibrosMasDescargados() {
-        List<LibroEntity> libros = libroRepository.findTop10ByOrderByNumeroDescargasDesc();
+    @Transactional(readOnly = true)
+    public List<ResumenLibro> obtenerTop10LibrosMasDescargados() {
+        List<ResumenLibro> libros = libroRepository.findResumenesMasDescargados(Limit.of(10));
         System.out.println("🏆 Top 10 libros más descargados obtenido");
         return libros;
     }
@@ -144,8 +118,9 @@ public class CatalogoService {
     /**
      * Obtener estadísticas del catálogo
      */
+    @Transactional(readOnly = true)
     public void mostrarEstadisticasCatalogo() {
-        long totalLibros = libroRepository.count();
+        long totalLibros = estadisticaIdiomaRepository.contarLibros();
         long totalAutores = autorRepository.count();
 
         System.out.println("📊 === ESTADÍSTICAS DEL CATÁLOGO ===");
@@ -153,27 +128,10 @@ public class CatalogoService {
         System.out.println("👥 Total de autores: " + totalAutores);
 
         // Estadísticas por idioma
-        List<Object[]> estadisticasIdioma = libroRepository.countLibrosPorIdioma();
+        List<Object[]> estadisticasIdioma = estadisticaIdiomaRepository.countLibrosPorIdioma();
         System.out.println("🌍 Libros por idioma:");
         estadisticasIdioma.forEach(stat -> System.out.println("   " + stat[0] + ": " + stat[1] + " libros"));
 
         System.out.println("=====================================");
     }
-
-    /**
-     * Guardar o buscar autor existente
-     */
-    private AutorEntity guardarOBuscarAutor(AutorEntity autor) {
-        if (autor == null || autor.getNombre() == null) {
-            return null;
-        }
-
-        Optional<AutorEntity> autorExistente = autorRepository.findByNombre(autor.getNombre());
-
-        if (autorExistente.isPresent()) {
-            return autorExistente.get();
-        } else {
-            return autorRepository.save(autor);
-        }
-    }
 }
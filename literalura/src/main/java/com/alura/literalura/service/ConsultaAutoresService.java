@@ -9,20 +9,12 @@ import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 
 @Service
-@Transactional
+@Transactional(readOnly = true)
 public class ConsultaAutoresService {
 
     @Autowired
     private AutorRepository autorRepository;
 
-    /**
-     * Listar todos los autores registrados
-     */
-    public List<AutorEntity> listarTodosLosAutores() {
-        System.out.println("👥 Obteniendo lista de todos los autores registrados...");
-        return autorRepository.findAll();
-    }
-
     /**
      * Listar autores vivos en un año específico
      */
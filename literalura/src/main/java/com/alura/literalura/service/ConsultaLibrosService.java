@@ -1,18 +1,16 @@
 package com.alura.literalura.service;
 
-import com.alura.literalura.converter.LibroConverter;
-import com.alura.literalura.entity.AutorEntity;
 import com.alura.literalura.entity.LibroEntity;
 import com.alura.literalura.model.Libro;
 import com.alura.literalura.model.RespuestaLibros;
-import com.alura.literalura.repository.AutorRepository;
+import com.alura.literalura.repository.EstadisticaIdiomaRepository;
 import com.alura.literalura.repository.LibroRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.Optional;
 
 @Service
 @Transactional
@@ -22,13 +20,14 @@ public class ConsultaLibrosService {
     private LibroRepository libroRepository;
 
     @Autowired
-    private AutorRepository autorRepository;
+    private EstadisticaIdiomaRepository estadisticaIdiomaRepository;
 
     @Autowired
+    @Lazy
     private GutendxServiceMejorado gutendxService;
 
     @Autowired
-    private LibroConverter libroConverter;
+    private PersistenciaService persistenciaService;
 
     /**
      * FUNCIONALIDAD OBLIGATORIA 1: Búsqueda de libro por título
@@ -49,26 +48,7 @@ public class ConsultaLibrosService {
             Libro libroDto = respuesta.getLibros().get(0);
             System.out.println("📖 Primer resultado encontrado: " + libroDto.getTitulo());
 
-            // Verificar si ya existe en la base de datos
-            if (libroRepository.existsById(libroDto.getId())) {
-                System.out.println("⚠️ El libro ya está registrado en la base de datos");
-                return libroRepository.findById(libroDto.getId()).orElse(null);
-            }
-
-            // Convertir y guardar el libro
-            LibroEntity libroEntity = libroConverter.crearEntityConValidacion(libroDto);
-
-            // Guardar o buscar autor existente
-            if (libroEntity.getAutor() != null) {
-                AutorEntity autorGuardado = guardarOBuscarAutor(libroEntity.getAutor());
-                libroEntity.setAutor(autorGuardado);
-            }
-
-            // Guardar libro
-            LibroEntity libroGuardado = libroRepository.save(libroEntity);
-            System.out.println("✅ Libro guardado exitosamente en la base de datos");
-
-            return libroGuardado;
+            return persistenciaService.persistirLibro(libroDto);
 
         } catch (Exception e) {
             System.err.println("❌ Error al buscar libro por título: " + e.getMessage());
@@ -76,39 +56,17 @@ public class ConsultaLibrosService {
         }
     }
 
-    /**
-     * FUNCIONALIDAD OBLIGATORIA 2: Lista de todos los libros
-     */
-    public List<LibroEntity> listarTodosLosLibros() {
-        System.out.println("📚 Obteniendo lista de todos los libros registrados...");
-
-        List<LibroEntity> libros = libroRepository.findAllByOrderByTituloAsc();
-
-        System.out.println("📊 Total de libros encontrados: " + libros.size());
-
-        return libros;
-    }
-
-    /**
-     * FUNCIONALIDAD ADICIONAL: Lista de libros por idioma (derived query)
-     */
-    public List<LibroEntity> listarLibrosPorIdioma(String idioma) {
-        System.out.println("🌍 Buscando libros en idioma: " + idioma);
-
-        List<LibroEntity> libros = libroRepository.findByIdiomaOrderByNumeroDescargasDesc(idioma.toLowerCase());
-
-        System.out.println("📊 Libros encontrados en " + idioma + ": " + libros.size());
-
-        return libros;
-    }
+    // Las listas de todos los libros y de los libros de un idioma se recorren por
+    // páginas: PersistenciaService.paginarLibrosPorTitulo y paginarLibrosPorIdioma
 
     /**
      * Obtener estadísticas de idiomas
      */
+    @Transactional(readOnly = true)
     public void mostrarEstadisticasIdiomas() {
         System.out.println("📊 === ESTADÍSTICAS POR IDIOMA ===");
 
-        List<Object[]> estadisticas = libroRepository.countLibrosPorIdioma();
+        List<Object[]> estadisticas = estadisticaIdiomaRepository.countLibrosPorIdioma();
 
         if (estadisticas.isEmpty()) {
             System.out.println("📭 No hay libros registrados para mostrar estadísticas");
@@ -144,8 +102,9 @@ public class ConsultaLibrosService {
     /**
      * Obtener idiomas disponibles en la base de datos
      */
+    @Transactional(readOnly = true)
     public List<String> obtenerIdiomasDisponibles() {
-        return libroRepository.countLibrosPorIdioma()
+        return estadisticaIdiomaRepository.countLibrosPorIdioma()
                 .stream()
                 .map(stat -> (String) stat[0])
                 .toList();
@@ -154,30 +113,11 @@ public class ConsultaLibrosService {
     /**
      * Buscar libros populares (más de 1000 descargas)
      */
+    @Transactional(readOnly = true)
     public List<LibroEntity> obtenerLibrosPopulares() {
         return libroRepository.findByNumeroDescargasGreaterThanOrderByNumeroDescargasDesc(1000);
     }
 
-    /**
-     * Guardar o buscar autor existente
-     */
-    private AutorEntity guardarOBuscarAutor(AutorEntity autor) {
-        if (autor == null || autor.getNombre() == null) {
-            return null;
-        }
-
-        Optional<AutorEntity> autorExistente = autorRepository.findByNombre(autor.getNombre());
-
-        if (autorExistente.isPresent()) {
-            System.out.println("👤 Autor ya existe en la base de datos: " + autor.getNombre());
-            return autorExistente.get();
-        } else {
-            AutorEntity autorGuardado = autorRepository.save(autor);
-            System.out.println("👤 Nuevo autor guardado: " + autorGuardado.getNombre());
-            return autorGuardado;
-        }
-    }
-
     /**
      * Obtener nombre completo del idioma
      */
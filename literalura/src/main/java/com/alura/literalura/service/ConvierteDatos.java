@@ -1,9 +1,17 @@
 package com.alura.literalura.service;
 
+import com.alura.literalura.model.Libro;
+import com.alura.literalura.model.RespuestaLibros;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
 @Service
 public class ConvierteDatos implements IConvierteDatos {
 
@@ -38,4 +46,53 @@ public class ConvierteDatos implements IConvierteDatos {
         System.out.println("✅ Conversión exitosa a " + clase.getSimpleName());
         return resultado;
     }
+
+    /**
+     * Leer una página de Gutendex token a token, entregando cada libro al destino
+     * en cuanto se termina de leer. Devuelve solo la cabecera de la página
+     * (count, next, previous); la lista de libros queda vacía.
+     */
+    @Override
+    public RespuestaLibros procesarLibrosEnStream(InputStream json, Consumer<Libro> destino) {
+        RespuestaLibros cabecera = new RespuestaLibros();
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new RuntimeException("Error al convertir JSON: se esperaba un objeto");
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String campo = parser.currentName();
+                JsonToken valor = parser.nextToken();
+
+                switch (campo) {
+                    case "count" -> cabecera.setTotalResultados(
+                            valor == JsonToken.VALUE_NULL ? null : parser.getIntValue());
+                    case "next" -> cabecera.setSiguientePagina(parser.getValueAsString());
+                    case "previous" -> cabecera.setPaginaAnterior(parser.getValueAsString());
+                    case "results" -> leerLibros(parser, destino);
+                    default -> parser.skipChildren();
+                }
+            }
+
+            return cabecera;
+
+        } catch (IOException e) {
+            throw new RuntimeException("Error al convertir JSON a Libro: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Recorrer el arreglo "results" enlazando un Libro por cada objeto
+     */
+    private void leerLibros(JsonParser parser, Consumer<Libro> destino) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            destino.accept(objectMapper.readValue(parser, Libro.class));
+        }
+    }
 }
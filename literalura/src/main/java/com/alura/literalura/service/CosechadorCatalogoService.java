@@ -0,0 +1,325 @@
+package com.alura.literalura.service;
+
+import com.alura.literalura.config.ApiConfig;
+import com.alura.literalura.config.EjecutorIngesta;
+import com.alura.literalura.model.Libro;
+import com.alura.literalura.model.RespuestaLibros;
+import com.alura.literalura.util.ResultadoCosecha;
+import com.alura.literalura.util.ResultadoPersistenciaMasiva;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Service
+@Lazy
+public class CosechadorCatalogoService {
+
+    private static final Pattern PARAMETRO_PAGINA = Pattern.compile("([?&]page=)(\\d+)");
+
+    @Autowired
+    private HttpClientService httpClientService;
+
+    @Autowired
+    private ConvierteDatos conversor;
+
+    @Autowired
+    private PersistenciaMasivaService persistenciaMasivaService;
+
+    @Autowired
+    private CacheAutores cacheAutores;
+
+    @Autowired
+    private EjecutorIngesta ejecutorIngesta;
+
+    // En modo de hilos virtuales la entrega al destino se serializa (acumulador de
+    // lotes no concurrente, y dos páginas no deben crear el mismo autor a la vez)
+    private final ReentrantLock bloqueoPersistencia = new ReentrantLock();
+
+    /**
+     * Cosechar el catálogo completo de Gutendex y persistirlo. Los libros se
+     * acumulan y se guardan de a PersistenciaMasivaService.TAMANO_LOTE por
+     * transacción, con INSERT en lotes JDBC.
+     */
+    public ResultadoCosecha cosecharCatalogoCompleto() throws IOException, InterruptedException {
+        int maxConcurrentes = ejecutorIngesta.usaHilosVirtuales()
+                ? ApiConfig.MAX_SOLICITUDES_CONCURRENTES_VIRTUALES
+                : ApiConfig.MAX_SOLICITUDES_CONCURRENTES;
+
+        ResultadoPersistenciaMasiva persistencia = new ResultadoPersistenciaMasiva();
+        List<Libro> pendientes = new ArrayList<>(PersistenciaMasivaService.TAMANO_LOTE);
+
+        // El destino se invoca de a un libro por vez (también en modo de hilos virtuales)
+        ResultadoCosecha resultado = cosechar(ApiConfig.obtenerBaseUrl(), maxConcurrentes, libro -> {
+            pendientes.add(libro);
+            if (pendientes.size() >= PersistenciaMasivaService.TAMANO_LOTE) {
+                persistirPendientes(pendientes, persistencia);
+            }
+        });
+        persistirPendientes(pendientes, persistencia);
+        resultado.registrarPersistencia(persistencia);
+
+        System.out.println(resultado);
+        System.out.println(persistencia);
+        System.out.println(cacheAutores);
+        return resultado;
+    }
+
+    /**
+     * Guardar los libros acumulados; si el lote falla se registra y la cosecha sigue
+     */
+    private void persistirPendientes(List<Libro> pendientes, ResultadoPersistenciaMasiva persistencia) {
+        if (pendientes.isEmpty()) {
+            return;
+        }
+
+        try {
+            persistencia.acumular(persistenciaMasivaService.persistirLibros(pendientes));
+            System.out.println("💾 Lote de " + pendientes.size() + " libros persistido");
+        } catch (RuntimeException e) {
+            System.err.println("❌ Error persistiendo lote de " + pendientes.size() + " libros: " + e.getMessage());
+            persistencia.registrarLibrosFallidos(pendientes.size());
+        } finally {
+            pendientes.clear();
+        }
+    }
+
+    /**
+     * Recorrer todas las páginas de un resultado de Gutendex a partir de una URL
+     * inicial, con un máximo de solicitudes en vuelo, entregando cada libro al
+     * destino a medida que llegan las páginas
+     */
+    public ResultadoCosecha cosechar(String urlInicial, int maxConcurrentes, Consumer<Libro> destino)
+            throws IOException, InterruptedException {
+        if (maxConcurrentes < 1) {
+            throw new IllegalArgumentException("El máximo de solicitudes concurrentes debe ser al menos 1");
+        }
+
+        System.out.println("🌾 Iniciando cosecha desde: " + urlInicial);
+        long inicio = System.currentTimeMillis();
+        ResultadoCosecha resultado = new ResultadoCosecha();
+
+        // 1. La primera página se pide de forma síncrona para conocer el total
+        RespuestaLibros primeraPagina = descargarPaginaSincrona(urlInicial);
+        procesarPagina(primeraPagina, destino, resultado);
+
+        if (primeraPagina.tieneSiguientePagina()) {
+            String siguiente = primeraPagina.getSiguientePagina();
+            int totalPaginas = calcularTotalPaginas(primeraPagina);
+
+            // 2. Si la URL siguiente es paginable por número, se piden las páginas en
+            // paralelo; si no, se siguen los enlaces "next" uno a uno
+            if (totalPaginas > 1 && PARAMETRO_PAGINA.matcher(siguiente).find()) {
+                Optional<ExecutorService> hilosVirtuales = ejecutorIngesta.getEjecutor();
+                if (hilosVirtuales.isPresent()) {
+                    cosecharEnHilosVirtuales(hilosVirtuales.get(), siguiente, 2, totalPaginas,
+                            maxConcurrentes, destino, resultado);
+                } else {
+                    cosecharEnParalelo(siguiente, totalPaginas, maxConcurrentes, destino, resultado);
+                }
+            } else {
+                cosecharSecuencialmente(siguiente, destino, resultado);
+            }
+        }
+
+        resultado.setDuracionMs(System.currentTimeMillis() - inicio);
+        return resultado;
+    }
+
+    /**
+     * Pedir las páginas 2..total manteniendo como máximo maxConcurrentes en vuelo.
+     * Las páginas se procesan en el hilo que llama, a medida que se completan.
+     */
+    private void cosecharEnParalelo(String plantilla, int totalPaginas, int maxConcurrentes,
+            Consumer<Libro> destino, ResultadoCosecha resultado) throws InterruptedException {
+        BlockingQueue<PaginaDescargada> completadas = new LinkedBlockingQueue<>();
+        int siguientePagina = 2;
+        int enVuelo = 0;
+
+        while (siguientePagina <= totalPaginas || enVuelo > 0) {
+            while (siguientePagina <= totalPaginas && enVuelo < maxConcurrentes) {
+                String url = construirUrlPagina(plantilla, siguientePagina++);
+                enVuelo++;
+                descargarPagina(url).whenComplete(
+                        (pagina, error) -> completadas.add(new PaginaDescargada(url, pagina, error)));
+            }
+
+            PaginaDescargada descargada = completadas.take();
+            enVuelo--;
+
+            if (descargada.error() != null) {
+                System.err.println("❌ Error descargando " + descargada.url() + ": "
+                        + descargada.error().getMessage());
+                resultado.registrarPaginaFallida(descargada.url());
+                continue;
+            }
+
+            procesarPagina(descargada.pagina(), destino, resultado);
+            System.out.printf("📄 Página %d/%d procesada (%d en vuelo)%n",
+                    resultado.getPaginasProcesadas(), totalPaginas, enVuelo);
+        }
+    }
+
+    /**
+     * Modo de hilos virtuales: cada página es una tarea completa (descarga,
+     * decodificación y entrega de sus libros) sobre su propio hilo virtual, con
+     * como máximo maxConcurrentes páginas en curso. Como en el modo paralelo, la
+     * página se decodifica completa antes de entregarla: una truncada no entrega nada.
+     */
+    public void cosecharEnHilosVirtuales(ExecutorService ejecutor, String plantilla, int primeraPagina,
+            int ultimaPagina, int maxConcurrentes, Consumer<Libro> destino, ResultadoCosecha resultado)
+            throws InterruptedException {
+        Semaphore permisos = new Semaphore(maxConcurrentes);
+        Consumer<Libro> destinoSerializado = libro -> {
+            bloqueoPersistencia.lock();
+            try {
+                destino.accept(libro);
+            } finally {
+                bloqueoPersistencia.unlock();
+            }
+        };
+
+        for (int pagina = primeraPagina; pagina <= ultimaPagina; pagina++) {
+            permisos.acquire();
+            String url = construirUrlPagina(plantilla, pagina);
+
+            ejecutor.execute(() -> {
+                try (InputStream flujo = httpClientService.realizarSolicitudComoFlujo(url)) {
+                    procesarPagina(leerPagina(flujo), destinoSerializado, resultado);
+                } catch (Exception e) {
+                    System.err.println("❌ Error descargando " + url + ": " + e.getMessage());
+                    resultado.registrarPaginaFallida(url);
+                } finally {
+                    permisos.release();
+                }
+            });
+        }
+
+        // Esperar a que terminen las últimas páginas en curso
+        permisos.acquire(maxConcurrentes);
+        permisos.release(maxConcurrentes);
+    }
+
+    /**
+     * Seguir los enlaces "next" de forma secuencial
+     */
+    private void cosecharSecuencialmente(String url, Consumer<Libro> destino, ResultadoCosecha resultado) {
+        String siguiente = url;
+
+        while (siguiente != null && !siguiente.isEmpty()) {
+            try {
+                RespuestaLibros pagina = descargarPagina(siguiente).join();
+                procesarPagina(pagina, destino, resultado);
+                siguiente = pagina.getSiguientePagina();
+            } catch (Exception e) {
+                System.err.println("❌ Error descargando " + siguiente + ": " + e.getMessage());
+                resultado.registrarPaginaFallida(siguiente);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Descargar y convertir una página de resultados. El cuerpo se decodifica en
+     * flujo, de modo que el JSON completo nunca se materializa como String.
+     */
+    private CompletableFuture<RespuestaLibros> descargarPagina(String url) {
+        return httpClientService.realizarSolicitudComoFlujoAsincrona(url)
+                .thenApply(flujo -> {
+                    try (flujo) {
+                        return leerPagina(flujo);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Descargar la primera página en el hilo que llama
+     */
+    private RespuestaLibros descargarPaginaSincrona(String url) throws IOException, InterruptedException {
+        try (InputStream flujo = httpClientService.realizarSolicitudComoFlujo(url)) {
+            return leerPagina(flujo);
+        }
+    }
+
+    /**
+     * Decodificar una página en flujo, reuniendo solo los objetos Libro
+     */
+    private RespuestaLibros leerPagina(InputStream flujo) {
+        List<Libro> libros = new ArrayList<>(ApiConfig.TAMANO_PAGINA);
+        RespuestaLibros pagina = conversor.procesarLibrosEnStream(flujo, libros::add);
+        pagina.setLibros(libros);
+        return pagina;
+    }
+
+    /**
+     * Entregar cada libro de la página al destino
+     */
+    private void procesarPagina(RespuestaLibros pagina, Consumer<Libro> destino, ResultadoCosecha resultado) {
+        resultado.registrarPagina();
+
+        if (pagina.getLibros() == null) {
+            return;
+        }
+
+        for (Libro libro : pagina.getLibros()) {
+            entregarLibro(libro, destino, resultado);
+        }
+    }
+
+    /**
+     * Entregar un libro al destino registrando el resultado
+     */
+    private void entregarLibro(Libro libro, Consumer<Libro> destino, ResultadoCosecha resultado) {
+        resultado.registrarLibroRecibido();
+        try {
+            destino.accept(libro);
+            resultado.registrarLibroEntregado();
+        } catch (Exception e) {
+            System.err.println("⚠️ Error procesando libro ID " + libro.getId() + ": " + e.getMessage());
+            resultado.registrarLibroConError();
+        }
+    }
+
+    /**
+     * Calcular el total de páginas a partir del conteo de la primera respuesta
+     */
+    private int calcularTotalPaginas(RespuestaLibros primeraPagina) {
+        if (primeraPagina.getTotalResultados() == null) {
+            return 0;
+        }
+
+        int tamanoPagina = primeraPagina.getLibros() != null && !primeraPagina.getLibros().isEmpty()
+                ? primeraPagina.getLibros().size()
+                : ApiConfig.TAMANO_PAGINA;
+
+        return (primeraPagina.getTotalResultados() + tamanoPagina - 1) / tamanoPagina;
+    }
+
+    /**
+     * Reemplazar el número de página en una URL "next" de Gutendex
+     */
+    private String construirUrlPagina(String plantilla, int pagina) {
+        Matcher matcher = PARAMETRO_PAGINA.matcher(plantilla);
+        return matcher.replaceFirst("$1" + pagina);
+    }
+
+    private record PaginaDescargada(String url, RespuestaLibros pagina, Throwable error) {
+    }
+}
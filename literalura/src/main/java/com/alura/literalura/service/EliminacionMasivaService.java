@@ -0,0 +1,162 @@
+package com.alura.literalura.service;
+
+import com.alura.literalura.util.CriteriosFiltro;
+import com.alura.literalura.util.ResultadoEliminacionMasiva;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class EliminacionMasivaService {
+
+    // Libros por sentencia DELETE (y por transacción)
+    public static final int TAMANO_LOTE = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CacheAutores cacheAutores;
+
+    @Autowired
+    private CacheSegundoNivel cacheSegundoNivel;
+
+    /**
+     * Eliminar todos los libros que cumplen los criterios (los mismos de
+     * ProcesadorDatos.filtrarLibros, más el idioma), sin cargarlos. Cada lote es
+     * una transacción con dos sentencias: un DELETE de hasta TAMANO_LOTE libros,
+     * avanzando por ID, y otro de los autores de esos libros que se quedaron sin
+     * ninguno. Los triggers de estadísticas por idioma corren una vez por lote.
+     */
+    public ResultadoEliminacionMasiva eliminarLibros(CriteriosFiltro criterios) {
+        // Sin criterios se vaciaría el catálogo: eso no es una purga
+        if (criterios == null || criterios.estaVacio()) {
+            throw new IllegalArgumentException("Se requiere al menos un criterio para eliminar libros");
+        }
+
+        ResultadoEliminacionMasiva resultado = new ResultadoEliminacionMasiva(criterios);
+        long inicio = System.currentTimeMillis();
+
+        System.out.println("🗑️ Eliminando libros. " + criterios);
+
+        Map<String, Object> parametros = new LinkedHashMap<>();
+        String sqlLibros = "DELETE FROM libros WHERE id IN (SELECT l.id FROM libros l "
+                + (criterios.getAutor() != null ? "JOIN autores a ON a.id = l.autor_id " : "")
+                + "WHERE l.id > :ultimoId" + condiciones(criterios, parametros)
+                + " ORDER BY l.id LIMIT :lote) RETURNING id, autor_id";
+
+        try {
+            long ultimoId = Long.MIN_VALUE;
+            while (true) {
+                long desde = ultimoId;
+                Long ultimo = transactionTemplate.execute(estado -> eliminarLote(sqlLibros, parametros, desde, resultado));
+                if (ultimo == null) {
+                    break;
+                }
+                ultimoId = ultimo;
+            }
+        } finally {
+            // Las sentencias nativas no pasan por la caché de segundo nivel
+            if (resultado.getLibrosEliminados() > 0) {
+                cacheSegundoNivel.catalogoModificado();
+            }
+            resultado.setDuracionMs(System.currentTimeMillis() - inicio);
+        }
+
+        System.out.println(resultado);
+        return resultado;
+    }
+
+    /**
+     * Un lote: devuelve el mayor ID eliminado, o null si ya no quedan libros
+     */
+    @SuppressWarnings("unchecked")
+    private Long eliminarLote(String sqlLibros, Map<String, Object> parametros, long desde,
+            ResultadoEliminacionMasiva resultado) {
+        Query consulta = entityManager.createNativeQuery(sqlLibros)
+                .setParameter("ultimoId", desde)
+                .setParameter("lote", TAMANO_LOTE);
+        parametros.forEach(consulta::setParameter);
+
+        List<Object[]> eliminados = consulta.getResultList();
+        if (eliminados.isEmpty()) {
+            return null;
+        }
+
+        long ultimo = desde;
+        Set<Long> autorIds = new HashSet<>();
+        for (Object[] fila : eliminados) {
+            ultimo = Math.max(ultimo, ((Number) fila[0]).longValue());
+            // autor_id es nulo en los libros que Gutendex publica sin autor
+            if (fila[1] != null) {
+                autorIds.add(((Number) fila[1]).longValue());
+            }
+        }
+
+        // Autores del lote que se quedaron sin libros, en una sola sentencia
+        List<String> autores = List.of();
+        if (!autorIds.isEmpty()) {
+            autores = entityManager.createNativeQuery(
+                            "DELETE FROM autores a WHERE a.id IN (:autorIds) " +
+                            "AND NOT EXISTS (SELECT 1 FROM libros l WHERE l.autor_id = a.id) RETURNING a.nombre", String.class)
+                    .setParameter("autorIds", autorIds)
+                    .getResultList();
+            autores.forEach(cacheAutores::invalidar);
+        }
+
+        resultado.registrarLote(eliminados.size(), autores.size());
+        return ultimo;
+    }
+
+    /**
+     * Condiciones SQL de los criterios no nulos, con sus parámetros
+     */
+    private String condiciones(CriteriosFiltro criterios, Map<String, Object> parametros) {
+        StringBuilder sql = new StringBuilder();
+
+        if (criterios.getIdioma() != null) {
+            sql.append(" AND l.idioma = :idioma");
+            parametros.put("idioma", criterios.getIdioma().toLowerCase());
+        }
+
+        // ILIKE sobre las columnas: usan los índices de trigramas
+        if (criterios.getAutor() != null) {
+            sql.append(" AND a.nombre ILIKE :autor");
+            parametros.put("autor", patronContiene(criterios.getAutor()));
+        }
+
+        if (criterios.getTitulo() != null) {
+            sql.append(" AND l.titulo ILIKE :titulo");
+            parametros.put("titulo", patronContiene(criterios.getTitulo()));
+        }
+
+        if (criterios.getDescargasMinimas() != null) {
+            sql.append(" AND l.numero_descargas >= :descargasMinimas");
+            parametros.put("descargasMinimas", criterios.getDescargasMinimas());
+        }
+
+        if (criterios.getDescargasMaximas() != null) {
+            sql.append(" AND COALESCE(l.numero_descargas, 0) <= :descargasMaximas");
+            parametros.put("descargasMaximas", criterios.getDescargasMaximas());
+        }
+
+        return sql.toString();
+    }
+
+    // Comodines de LIKE como texto literal (la barra es el escape por defecto de PostgreSQL)
+    private String patronContiene(String texto) {
+        return "%" + texto.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+}
@@ -1,8 +1,12 @@
 package com.alura.literalura.service;
 
-import com.alura.literalura.entity.LibroEntity;
+import com.alura.literalura.dto.EstadisticasDescargas;
+import com.alura.literalura.dto.ResumenLibro;
+import com.alura.literalura.repository.EstadisticaIdiomaRepository;
 import com.alura.literalura.repository.LibroRepository;
+import com.alura.literalura.util.PaginadorKeyset;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -15,6 +19,12 @@ public class EstadisticasIdiomaService {
     @Autowired
     private LibroRepository libroRepository;
 
+    @Autowired
+    private EstadisticaIdiomaRepository estadisticaIdiomaRepository;
+
+    @Autowired
+    private PersistenciaService persistenciaService;
+
     /**
      * FUNCIONALIDAD OBLIGATORIA: Exhibir cantidad de libros en un determinado
      * idioma
@@ -22,38 +32,30 @@ public class EstadisticasIdiomaService {
     public void exhibirCantidadLibrosPorIdioma(String idioma) {
         System.out.println("📊 === ESTADÍSTICAS PARA IDIOMA: " + obtenerNombreIdioma(idioma).toUpperCase() + " ===");
 
-        // Contar libros usando derived query
-        Long cantidadLibros = libroRepository.countByIdioma(idioma.toLowerCase());
+        // Conteo y estadísticas de la fila del idioma (tabla de estadísticas)
+        EstadisticasDescargas estadisticas = estadisticaIdiomaRepository.findEstadisticasDescargasDeIdioma(idioma.toLowerCase());
 
-        if (cantidadLibros == 0) {
+        if (estadisticas.libros() == 0) {
             System.out.println("📭 No hay libros registrados en " + obtenerNombreIdioma(idioma));
             return;
         }
 
-        // Obtener libros del idioma
-        List<LibroEntity> libros = libroRepository.findByIdiomaOrderByNumeroDescargasDesc(idioma.toLowerCase());
-
-        // Usar Streams para calcular estadísticas
-        var estadisticas = libros.stream()
-                .filter(libro -> libro.getNumeroDescargas() != null)
-                .mapToInt(LibroEntity::getNumeroDescargas)
-                .summaryStatistics();
-
         // Mostrar estadísticas
-        System.out.println("📚 Total de libros: " + cantidadLibros);
-        System.out.println("📥 Total de descargas: " + String.format("%,d", estadisticas.getSum()));
-        System.out.println("📊 Promedio de descargas: " + String.format("%.2f", estadisticas.getAverage()));
-        System.out.println("🏆 Máximo de descargas: " + String.format("%,d", estadisticas.getMax()));
-        System.out.println("📉 Mínimo de descargas: " + String.format("%,d", estadisticas.getMin()));
+        System.out.println("📚 Total de libros: " + estadisticas.libros());
+        System.out.println("📥 Total de descargas: " + String.format("%,d", estadisticas.sumaOCero()));
+        System.out.println("📊 Promedio de descargas: " + String.format("%.2f", estadisticas.promedioOCero()));
+        if (estadisticas.maximo() != null) {
+            System.out.println("🏆 Máximo de descargas: " + String.format("%,d", estadisticas.maximo()));
+            System.out.println("📉 Mínimo de descargas: " + String.format("%,d", estadisticas.minimo()));
+        }
 
-        // Mostrar top 5 libros más descargados en este idioma
+        // Mostrar top 5 libros más descargados en este idioma (solo esas 5 filas)
         System.out.println("\n🏆 Top 5 libros más descargados en " + obtenerNombreIdioma(idioma) + ":");
-        libros.stream()
-                .filter(libro -> libro.getNumeroDescargas() != null)
-                .limit(5)
+        libroRepository.findResumenesPorIdioma(idioma.toLowerCase(), Limit.of(5)).stream()
+                .filter(libro -> libro.numeroDescargas() != null)
                 .forEach(libro -> System.out.printf("   📖 %s - %s descargas%n",
-                        libro.getTitulo(),
-                        String.format("%,d", libro.getNumeroDescargas())));
+                        libro.titulo(),
+                        libro.descargasFormateadas()));
 
         System.out.println("═".repeat(60));
     }
@@ -64,8 +66,8 @@ public class EstadisticasIdiomaService {
     public void mostrarEstadisticasCompletasIdiomas() {
         System.out.println("🌍 === ESTADÍSTICAS COMPLETAS POR IDIOMA ===");
 
-        // Obtener estadísticas usando consulta personalizada
-        List<Object[]> estadisticasDB = libroRepository.getEstadisticasDescargasPorIdioma();
+        // Una fila por idioma de la tabla de estadísticas (mantenida por triggers)
+        List<Object[]> estadisticasDB = estadisticaIdiomaRepository.getEstadisticasDescargasPorIdioma();
 
         if (estadisticasDB.isEmpty()) {
             System.out.println("📭 No hay datos de libros para mostrar estadísticas");
@@ -100,9 +102,11 @@ public class EstadisticasIdiomaService {
     public void listarLibrosPorIdiomaConStreams(String idioma) {
         System.out.println("📚 === LIBROS EN " + obtenerNombreIdioma(idioma).toUpperCase() + " ===");
 
-        List<LibroEntity> libros = libroRepository.findByIdiomaOrderByNumeroDescargasDesc(idioma.toLowerCase());
+        // Paginación por clave: en memoria solo hay una página del idioma a la vez
+        PaginadorKeyset<ResumenLibro, Integer> paginas =
+                persistenciaService.paginarLibrosPorIdioma(idioma, PersistenciaService.TAMANO_PAGINA_LISTADO);
 
-        if (libros.isEmpty()) {
+        if (!paginas.hasNext()) {
             System.out.println("📭 No hay libros en " + obtenerNombreIdioma(idioma));
             return;
         }
@@ -111,21 +115,22 @@ public class EstadisticasIdiomaService {
         System.out.println("📋 Lista ordenada por número de descargas:");
         System.out.println("═".repeat(80));
 
-        libros.stream()
+        long[] totales = new long[2]; // total, con descargas
+        paginas.elementos()
                 .forEach(libro -> {
-                    System.out.printf("📖 %s%n", libro.getTitulo());
-                    System.out.printf("   👤 %s%n", libro.getNombreAutor());
-                    System.out.printf("   📥 %s descargas%n",
-                            libro.getNumeroDescargas() != null ? String.format("%,d", libro.getNumeroDescargas())
-                                    : "N/A");
+                    System.out.printf("📖 %s%n", libro.titulo());
+                    System.out.printf("   👤 %s%n", libro.nombreAutor());
+                    System.out.printf("   📥 %s descargas%n", libro.descargasFormateadas());
                     System.out.println("   " + "─".repeat(70));
+                    totales[0]++;
+                    if (libro.numeroDescargas() != null) {
+                        totales[1]++;
+                    }
                 });
 
-        // Estadísticas usando Streams
-        long totalLibros = libros.size();
-        long librosConDescargas = libros.stream()
-                .filter(libro -> libro.getNumeroDescargas() != null)
-                .count();
+        // Estadísticas acumuladas durante el recorrido
+        long totalLibros = totales[0];
+        long librosConDescargas = totales[1];
 
         System.out.printf("📊 Total: %d libros | Con datos de descarga: %d%n",
                 totalLibros, librosConDescargas);
@@ -141,23 +146,11 @@ public class EstadisticasIdiomaService {
                 obtenerNombreIdioma(idioma2));
         System.out.println("═".repeat(50));
 
-        // Obtener datos de ambos idiomas
-        Long cantidad1 = libroRepository.countByIdioma(idioma1.toLowerCase());
-        Long cantidad2 = libroRepository.countByIdioma(idioma2.toLowerCase());
-
-        List<LibroEntity> libros1 = libroRepository.findByIdiomaOrderByNumeroDescargasDesc(idioma1.toLowerCase());
-        List<LibroEntity> libros2 = libroRepository.findByIdiomaOrderByNumeroDescargasDesc(idioma2.toLowerCase());
-
-        // Calcular estadísticas con Streams
-        var stats1 = libros1.stream()
-                .filter(libro -> libro.getNumeroDescargas() != null)
-                .mapToInt(LibroEntity::getNumeroDescargas)
-                .summaryStatistics();
-
-        var stats2 = libros2.stream()
-                .filter(libro -> libro.getNumeroDescargas() != null)
-                .mapToInt(LibroEntity::getNumeroDescargas)
-                .summaryStatistics();
+        // Obtener datos de ambos idiomas (agregados en la base)
+        EstadisticasDescargas stats1 = estadisticaIdiomaRepository.findEstadisticasDescargasDeIdioma(idioma1.toLowerCase());
+        EstadisticasDescargas stats2 = estadisticaIdiomaRepository.findEstadisticasDescargasDeIdioma(idioma2.toLowerCase());
+        long cantidad1 = stats1.libros();
+        long cantidad2 = stats2.libros();
 
         // Mostrar comparación
         System.out.printf("📚 Cantidad de libros:%n");
@@ -165,8 +158,8 @@ public class EstadisticasIdiomaService {
         System.out.printf("   %s: %d libros%n", obtenerNombreIdioma(idioma2), cantidad2);
 
         System.out.printf("📥 Promedio de descargas:%n");
-        System.out.printf("   %s: %.0f descargas%n", obtenerNombreIdioma(idioma1), stats1.getAverage());
-        System.out.printf("   %s: %.0f descargas%n", obtenerNombreIdioma(idioma2), stats2.getAverage());
+        System.out.printf("   %s: %.0f descargas%n", obtenerNombreIdioma(idioma1), stats1.promedioOCero());
+        System.out.printf("   %s: %.0f descargas%n", obtenerNombreIdioma(idioma2), stats2.promedioOCero());
 
         // Determinar ganador
         String ganador = cantidad1 > cantidad2 ? obtenerNombreIdioma(idioma1) : obtenerNombreIdioma(idioma2);
@@ -179,7 +172,7 @@ public class EstadisticasIdiomaService {
      * Obtener idiomas disponibles en la base de datos
      */
     public List<String> obtenerIdiomasDisponibles() {
-        return libroRepository.findIdiomasDisponibles();
+        return estadisticaIdiomaRepository.findIdiomasDisponibles();
     }
 
     /**
@@ -188,13 +181,13 @@ public class EstadisticasIdiomaService {
     public void mostrarDistribucionIdiomas() {
         System.out.println("📊 === DISTRIBUCIÓN DE LIBROS POR IDIOMA ===");
 
-        // Obtener todos los libros y agrupar por idioma usando Streams
-        List<LibroEntity> todosLosLibros = libroRepository.findAll();
-
-        Map<String, Long> distribucion = todosLosLibros.stream()
-                .collect(Collectors.groupingBy(
-                        LibroEntity::getIdioma,
-                        Collectors.counting()));
+        // Una fila por idioma de la tabla de estadísticas, sin recorrer los libros
+        Map<String, Long> distribucion = estadisticaIdiomaRepository.countLibrosPorIdioma().stream()
+                .collect(Collectors.toMap(
+                        fila -> (String) fila[0],
+                        fila -> ((Number) fila[1]).longValue(),
+                        Long::sum));
+        long totalLibros = distribucion.values().stream().mapToLong(Long::longValue).sum();
 
         // Mostrar distribución ordenada por cantidad
         distribucion.entrySet().stream()
@@ -202,7 +195,7 @@ public class EstadisticasIdiomaService {
                 .forEach(entry -> {
                     String idioma = entry.getKey();
                     Long cantidad = entry.getValue();
-                    double porcentaje = (cantidad * 100.0) / todosLosLibros.size();
+                    double porcentaje = (cantidad * 100.0) / totalLibros;
 
                     System.out.printf("🌍 %-15s: %3d libros (%5.1f%%)%n",
                             obtenerNombreIdioma(idioma),
@@ -210,7 +203,7 @@ public class EstadisticasIdiomaService {
                             porcentaje);
                 });
 
-        System.out.printf("📊 Total de libros: %d%n", todosLosLibros.size());
+        System.out.printf("📊 Total de libros: %d%n", totalLibros);
         System.out.printf("🗣️ Total de idiomas: %d%n", distribucion.size());
         System.out.println("═".repeat(50));
     }
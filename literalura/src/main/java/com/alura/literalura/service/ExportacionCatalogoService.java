@@ -0,0 +1,159 @@
+package com.alura.literalura.service;
+
+import com.alura.literalura.entity.AutorEntity;
+import com.alura.literalura.entity.LibroEntity;
+import com.alura.literalura.repository.LibroRepository;
+import com.alura.literalura.util.FormatoExportacion;
+import com.alura.literalura.util.ResultadoExportacion;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+@Service
+public class ExportacionCatalogoService {
+
+    // Cada cuántas filas se vacía el contexto de persistencia (los autores se
+    // comparten entre libros y no se desprenden uno a uno)
+    private static final int FILAS_POR_LIMPIEZA = 1000;
+
+    private static final String[] COLUMNAS = {
+            "id", "titulo", "autor", "ano_nacimiento_autor", "ano_fallecimiento_autor",
+            "idioma", "numero_descargas", "url_descarga"
+    };
+
+    @Autowired
+    private LibroRepository libroRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Exportar el catálogo completo a CSV o JSON Lines (según la extensión). Los
+     * libros se leen con un cursor del servidor y se escriben a medida que llegan,
+     * desprendiendo cada entidad: la memoria no depende del tamaño del catálogo.
+     * Se escribe a un archivo temporal que reemplaza al destino solo al terminar.
+     */
+    @Transactional(readOnly = true)
+    public ResultadoExportacion exportar(Path archivo) throws IOException {
+        FormatoExportacion formato = FormatoExportacion.desdeArchivo(archivo);
+        ResultadoExportacion resultado = new ResultadoExportacion(archivo, formato);
+        long inicio = System.currentTimeMillis();
+
+        System.out.println("📤 Exportando catálogo a " + archivo + " (" + formato + ")...");
+
+        Path directorio = archivo.toAbsolutePath().getParent();
+        Files.createDirectories(directorio);
+        Path temporal = Files.createTempFile(directorio, archivo.getFileName().toString(), ".tmp");
+
+        try {
+            try (Stream<LibroEntity> libros = libroRepository.streamTodosConAutor();
+                    BufferedWriter escritor = Files.newBufferedWriter(temporal, StandardCharsets.UTF_8)) {
+
+                if (formato == FormatoExportacion.CSV) {
+                    escribirFilaCsv(escritor, COLUMNAS);
+                }
+
+                Iterator<LibroEntity> iterador = libros.iterator();
+                while (iterador.hasNext()) {
+                    LibroEntity libro = iterador.next();
+
+                    if (formato == FormatoExportacion.CSV) {
+                        escribirFilaCsv(escritor, valores(libro));
+                    } else {
+                        escritor.write(objectMapper.writeValueAsString(comoMapa(libro)));
+                        escritor.write('\n');
+                    }
+
+                    entityManager.detach(libro);
+                    resultado.registrarFila();
+                    if (resultado.getFilas() % FILAS_POR_LIMPIEZA == 0) {
+                        entityManager.clear();
+                    }
+                }
+            }
+
+            Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+
+        resultado.setBytes(Files.size(archivo));
+        resultado.setDuracionMs(System.currentTimeMillis() - inicio);
+        System.out.println(resultado);
+        return resultado;
+    }
+
+    private String[] valores(LibroEntity libro) {
+        AutorEntity autor = libro.getAutor();
+        return new String[] {
+                String.valueOf(libro.getId()),
+                libro.getTitulo(),
+                autor != null ? autor.getNombre() : null,
+                autor != null ? texto(autor.getAnoNacimiento()) : null,
+                autor != null ? texto(autor.getAnoFallecimiento()) : null,
+                libro.getIdioma(),
+                texto(libro.getNumeroDescargas()),
+                libro.getUrlDescarga()
+        };
+    }
+
+    private Map<String, Object> comoMapa(LibroEntity libro) {
+        AutorEntity autor = libro.getAutor();
+        Map<String, Object> fila = new LinkedHashMap<>();
+        fila.put("id", libro.getId());
+        fila.put("titulo", libro.getTitulo());
+        fila.put("autor", autor != null ? autor.getNombre() : null);
+        fila.put("ano_nacimiento_autor", autor != null ? autor.getAnoNacimiento() : null);
+        fila.put("ano_fallecimiento_autor", autor != null ? autor.getAnoFallecimiento() : null);
+        fila.put("idioma", libro.getIdioma());
+        fila.put("numero_descargas", libro.getNumeroDescargas());
+        fila.put("url_descarga", libro.getUrlDescarga());
+        return fila;
+    }
+
+    /**
+     * Fila CSV (RFC 4180): entre comillas los campos con coma, comillas o saltos
+     * de línea, duplicando las comillas internas; null como campo vacío
+     */
+    private void escribirFilaCsv(Writer escritor, String[] campos) throws IOException {
+        for (int i = 0; i < campos.length; i++) {
+            if (i > 0) {
+                escritor.write(',');
+            }
+            String campo = campos[i];
+            if (campo == null) {
+                continue;
+            }
+            if (campo.indexOf(',') >= 0 || campo.indexOf('"') >= 0
+                    || campo.indexOf('\n') >= 0 || campo.indexOf('\r') >= 0) {
+                escritor.write('"');
+                escritor.write(campo.replace("\"", "\"\""));
+                escritor.write('"');
+            } else {
+                escritor.write(campo);
+            }
+        }
+        escritor.write("\r\n");
+    }
+
+    private String texto(Integer valor) {
+        return valor != null ? valor.toString() : null;
+    }
+}
@@ -4,14 +4,26 @@ import com.alura.literalura.config.ApiConfig;
 import com.alura.literalura.model.Libro;
 import com.alura.literalura.model.RespuestaLibros;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
 
 @Service
+@Lazy
 public class GutendxServiceMejorado {
 
     @Autowired
@@ -20,16 +32,19 @@ public class GutendxServiceMejorado {
     @Autowired
     private ConvierteDatos conversor;
 
+    // Solicitudes en curso por URL: las llamadas concurrentes idénticas comparten una
+    private final ConcurrentHashMap<String, CompletableFuture<String>> solicitudesEnVuelo = new ConcurrentHashMap<>();
+
     /**
      * Buscar libros y convertir a objetos Java
      */
     public RespuestaLibros buscarLibros(String titulo) throws IOException, InterruptedException {
         String tituloEncoded = URLEncoder.encode(titulo, StandardCharsets.UTF_8);
-        String url = ApiConfig.BASE_URL + "?search=" + tituloEncoded;
+        String url = ApiConfig.obtenerBaseUrl() + "?search=" + tituloEncoded;
 
         System.out.println("🔍 Buscando libros: " + titulo);
 
-        String jsonRespuesta = httpClientService.realizarSolicitud(url);
+        String jsonRespuesta = obtenerRespuestaCompartida(url);
         return conversor.obtenerDatosConLog(jsonRespuesta, RespuestaLibros.class);
     }
 
@@ -37,14 +52,78 @@ public class GutendxServiceMejorado {
      * Obtener libro específico por ID
      */
     public Libro obtenerLibroPorId(Long id) throws IOException, InterruptedException {
-        String url = ApiConfig.BASE_URL + id + "/";
+        String url = ApiConfig.obtenerBaseUrl() + id + "/";
 
         System.out.println("📖 Obteniendo libro ID: " + id);
 
-        String jsonRespuesta = httpClientService.realizarSolicitud(url);
+        String jsonRespuesta = obtenerRespuestaCompartida(url);
         return conversor.obtenerDatosConLog(jsonRespuesta, Libro.class);
     }
 
+    /**
+     * Obtener varios libros por ID con ?ids=1,2,3, en lotes de TAMANO_PAGINA ids
+     * (lo máximo que Gutendex devuelve por página, así cada lote es un solo viaje).
+     * Los lotes se piden en paralelo y, si alguno trae más páginas, se siguen.
+     * Los IDs que Gutendex no conoce simplemente no aparecen en el mapa.
+     */
+    public Map<Long, Libro> obtenerLibrosPorIds(Collection<Long> ids) throws IOException, InterruptedException {
+        // Ordenados para que la misma colección produzca siempre las mismas URLs (caché HTTP)
+        List<Long> ordenados = ids.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .toList();
+
+        Map<Long, Libro> libros = new ConcurrentHashMap<>();
+        if (ordenados.isEmpty()) {
+            return libros;
+        }
+
+        int totalLotes = (ordenados.size() + ApiConfig.TAMANO_PAGINA - 1) / ApiConfig.TAMANO_PAGINA;
+        System.out.println("📖 Obteniendo " + ordenados.size() + " libros por ID en " + totalLotes + " solicitudes");
+
+        Semaphore permisos = new Semaphore(ApiConfig.MAX_SOLICITUDES_CONCURRENTES);
+        List<CompletableFuture<Void>> lotes = new ArrayList<>();
+
+        for (int inicio = 0; inicio < ordenados.size(); inicio += ApiConfig.TAMANO_PAGINA) {
+            List<Long> lote = ordenados.subList(inicio, Math.min(inicio + ApiConfig.TAMANO_PAGINA, ordenados.size()));
+            String url = ApiConfig.obtenerBaseUrl() + "?ids=" + lote.stream()
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(","));
+
+            permisos.acquire();
+            CompletableFuture<Void> pedido;
+            try {
+                pedido = descargarLote(url, libros);
+            } catch (RuntimeException e) {
+                permisos.release();
+                throw e;
+            }
+            lotes.add(pedido.whenComplete((resultado, error) -> permisos.release()));
+        }
+
+        esperar(CompletableFuture.allOf(lotes.toArray(new CompletableFuture[0])), "lotes de IDs");
+
+        System.out.println("✅ Libros obtenidos: " + libros.size() + " de " + ordenados.size());
+        return libros;
+    }
+
+    /**
+     * Descargar una página de un lote y encadenar la siguiente, si la hay
+     */
+    private CompletableFuture<Void> descargarLote(String url, Map<Long, Libro> destino) {
+        return solicitarCompartido(url).thenCompose(json -> {
+            RespuestaLibros respuesta = conversor.obtenerDatos(json, RespuestaLibros.class);
+            if (respuesta.getLibros() != null) {
+                respuesta.getLibros().forEach(libro -> destino.put(libro.getId(), libro));
+            }
+
+            return respuesta.tieneSiguientePagina()
+                    ? descargarLote(respuesta.getSiguientePagina(), destino)
+                    : CompletableFuture.completedFuture(null);
+        });
+    }
+
     /**
      * Buscar libros por autor
      */
@@ -57,11 +136,71 @@ public class GutendxServiceMejorado {
      * Buscar libros por idioma
      */
     public RespuestaLibros buscarPorIdioma(String idioma) throws IOException, InterruptedException {
-        String url = ApiConfig.BASE_URL + "?languages=" + idioma;
+        String url = ApiConfig.obtenerBaseUrl() + "?languages=" + idioma;
 
         System.out.println("🌍 Buscando libros en idioma: " + idioma);
 
-        String jsonRespuesta = httpClientService.realizarSolicitud(url);
+        String jsonRespuesta = obtenerRespuestaCompartida(url);
         return conversor.obtenerDatosConLog(jsonRespuesta, RespuestaLibros.class);
     }
+
+    /**
+     * Obtener el cuerpo de una URL reutilizando la solicitud en curso si otro hilo
+     * ya pidió la misma URL y todavía no recibió respuesta
+     */
+    private String obtenerRespuestaCompartida(String url) throws IOException, InterruptedException {
+        return esperar(solicitarCompartido(url), url);
+    }
+
+    /**
+     * Esperar un resultado asíncrono relanzando la causa original del fallo
+     */
+    private <T> T esperar(CompletableFuture<T> futuro, String descripcion) throws IOException, InterruptedException {
+        try {
+            return futuro.get();
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause() instanceof CompletionException && e.getCause().getCause() != null
+                    ? e.getCause().getCause()
+                    : e.getCause();
+
+            if (causa instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (causa instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException("Error en solicitud a " + descripcion + ": " + causa.getMessage(), causa);
+        }
+    }
+
+    /**
+     * Registrar la solicitud en curso o unirse a la existente. La entrada se
+     * retira al completarse, de modo que las llamadas posteriores piden datos
+     * frescos (o revalidan la caché HTTP).
+     */
+    private CompletableFuture<String> solicitarCompartido(String url) {
+        CompletableFuture<String> nueva = new CompletableFuture<>();
+        CompletableFuture<String> existente = solicitudesEnVuelo.putIfAbsent(url, nueva);
+
+        if (existente != null) {
+            System.out.println("🔗 Reutilizando solicitud en curso: " + url);
+            return existente.copy();
+        }
+
+        try {
+            httpClientService.realizarSolicitudAsincrona(url).whenComplete((json, error) -> {
+                solicitudesEnVuelo.remove(url, nueva);
+                if (error != null) {
+                    nueva.completeExceptionally(error);
+                } else {
+                    nueva.complete(json);
+                }
+            });
+        } catch (RuntimeException e) {
+            solicitudesEnVuelo.remove(url, nueva);
+            nueva.completeExceptionally(e);
+        }
+
+        return nueva.copy();
+    }
 }
@@ -1,77 +1,411 @@
 package com.alura.literalura.service;
 
 import com.alura.literalura.config.ApiConfig;
+import com.alura.literalura.config.EjecutorIngesta;
+import com.alura.literalura.service.CacheHttpDisco.EntradaCache;
+import com.alura.literalura.util.ContadorBytesInputStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
 import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 
 @Service
+@Lazy
 public class HttpClientService {
 
+    private static final int MAX_CARACTERES_CUERPO_ERROR = 500;
+    private static final int TAMANO_BUFFER = 8192;
+
     private final HttpClient httpClient;
 
-    public HttpClientService() {
-        this.httpClient = HttpClient.newBuilder()
+    // Contadores acumulados de transferencia (bytes en la red vs. bytes JSON)
+    private final AtomicLong bytesTransferidos = new AtomicLong();
+    private final AtomicLong bytesDescomprimidos = new AtomicLong();
+
+    @Autowired
+    private CacheHttpDisco cacheHttp;
+
+    @Autowired
+    private LimitadorTasa limitadorTasa;
+
+    public HttpClientService(EjecutorIngesta ejecutorIngesta) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
                 .connectTimeout(Duration.ofSeconds(10))
-                .followRedirects(HttpClient.Redirect.NORMAL)
-                .build();
+                .followRedirects(HttpClient.Redirect.NORMAL);
+
+        // En modo de hilos virtuales el cliente despacha sus tareas sobre ellos
+        ejecutorIngesta.getEjecutor().ifPresent(builder::executor);
+
+        this.httpClient = builder.build();
     }
 
     /**
      * Realizar solicitud HTTP síncrona
      */
     public String realizarSolicitud(String url) throws IOException, InterruptedException {
-        HttpRequest request = construirRequest(url);
-        HttpResponse<String> response = httpClient.send(request,
-                HttpResponse.BodyHandlers.ofString());
-
-        validarRespuesta(response);
-        return response.body();
+        return leerTexto(realizarSolicitudComoFlujo(url));
     }
 
     /**
      * Realizar solicitud HTTP asíncrona
      */
     public CompletableFuture<String> realizarSolicitudAsincrona(String url) {
-        HttpRequest request = construirRequest(url);
+        return realizarSolicitudComoFlujoAsincrona(url).thenApply(this::leerTexto);
+    }
 
-        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .thenApply(response -> {
+    /**
+     * Realizar solicitud HTTP síncrona devolviendo el cuerpo ya descomprimido
+     * como flujo, sin materializarlo como String. Quien llama debe cerrar el flujo.
+     */
+    public InputStream realizarSolicitudComoFlujo(String url) throws IOException, InterruptedException {
+        Optional<EntradaCache> entrada = cacheHttp.leer(url);
+        HttpRequest request = construirRequest(url, entrada.orElse(null));
+        HttpResponse<InputStream> response = enviarConReintentos(request);
+
+        try {
+            return resolverRespuesta(url, response, entrada);
+        } catch (NoSuchFileException e) {
+            avisarEntradaPodada(url);
+            return resolverRespuesta(url, enviarConReintentos(construirRequest(url, null)), Optional.empty());
+        }
+    }
+
+    /**
+     * Realizar solicitud HTTP asíncrona devolviendo el cuerpo como flujo
+     */
+    public CompletableFuture<InputStream> realizarSolicitudComoFlujoAsincrona(String url) {
+        Optional<EntradaCache> entrada = cacheHttp.leer(url);
+        HttpRequest request = construirRequest(url, entrada.orElse(null));
+
+        return enviarConReintentosAsincrono(request, 0)
+                .thenCompose(response -> {
                     try {
-                        validarRespuesta(response);
-                        return response.body();
+                        return CompletableFuture.completedFuture(resolverRespuesta(url, response, entrada));
+                    } catch (NoSuchFileException e) {
+                        avisarEntradaPodada(url);
+                        return enviarConReintentosAsincrono(construirRequest(url, null), 0)
+                                .thenApply(sinValidadores -> resolverRespuestaAsincrona(url, sinValidadores));
                     } catch (Exception e) {
                         throw new RuntimeException("Error en solicitud asíncrona: " + e.getMessage(), e);
                     }
                 });
     }
 
+    private InputStream resolverRespuestaAsincrona(String url, HttpResponse<InputStream> response) {
+        try {
+            return resolverRespuesta(url, response, Optional.empty());
+        } catch (Exception e) {
+            throw new RuntimeException("Error en solicitud asíncrona: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Un 304 de una entrada que la poda (de este u otro proceso) eliminó después
+     * de leerla ya no puede servirse: quien llama repite la solicitud sin validadores
+     */
+    private void avisarEntradaPodada(String url) {
+        System.out.println("🔁 La entrada en caché de " + url + " ya no existe, se pide completa");
+    }
+
+    /**
+     * Enviar respetando el limitador de tasa y reintentando ante 429, 5xx o
+     * errores de red, con espera exponencial con jitter o la indicada en
+     * Retry-After
+     */
+    private HttpResponse<InputStream> enviarConReintentos(HttpRequest request)
+            throws IOException, InterruptedException {
+        for (int intento = 0;; intento++) {
+            limitadorTasa.adquirir();
+
+            HttpResponse<InputStream> response;
+            try {
+                response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            } catch (IOException e) {
+                if (intento >= ApiConfig.MAX_REINTENTOS) {
+                    throw e;
+                }
+                long espera = calcularEsperaExponencial(intento);
+                System.out.printf("🔁 Error de red (%s), reintento %d en %,d ms%n",
+                        e.getMessage(), intento + 1, espera);
+                Thread.sleep(espera);
+                continue;
+            }
+
+            if (!registrarYEvaluarReintento(response, intento)) {
+                return response;
+            }
+
+            long espera = calcularEspera(response, intento);
+            response.body().close();
+            System.out.printf("🔁 Código %d, reintento %d en %,d ms%n", response.statusCode(), intento + 1, espera);
+            Thread.sleep(espera);
+        }
+    }
+
+    /**
+     * Variante asíncrona: las esperas se programan con un ejecutor diferido en
+     * lugar de bloquear un hilo
+     */
+    private CompletableFuture<HttpResponse<InputStream>> enviarConReintentosAsincrono(HttpRequest request,
+            int intento) {
+        long esperaTasa = limitadorTasa.reservar();
+
+        return despuesDe(TimeUnit.NANOSECONDS.toMillis(esperaTasa))
+                .thenCompose(v -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream()))
+                .handle((response, error) -> {
+                    if (error != null) {
+                        if (intento >= ApiConfig.MAX_REINTENTOS) {
+                            return CompletableFuture.<HttpResponse<InputStream>>failedFuture(error);
+                        }
+                        long espera = calcularEsperaExponencial(intento);
+                        System.out.printf("🔁 Error de red (%s), reintento %d en %,d ms%n",
+                                error.getMessage(), intento + 1, espera);
+                        return despuesDe(espera).thenCompose(v -> enviarConReintentosAsincrono(request, intento + 1));
+                    }
+
+                    if (!registrarYEvaluarReintento(response, intento)) {
+                        return CompletableFuture.completedFuture(response);
+                    }
+
+                    long espera = calcularEspera(response, intento);
+                    cerrarSinError(response.body());
+                    System.out.printf("🔁 Código %d, reintento %d en %,d ms%n",
+                            response.statusCode(), intento + 1, espera);
+                    return despuesDe(espera).thenCompose(v -> enviarConReintentosAsincrono(request, intento + 1));
+                })
+                .thenCompose(Function.identity());
+    }
+
+    /**
+     * Informar al limitador del resultado y decidir si corresponde reintentar
+     */
+    private boolean registrarYEvaluarReintento(HttpResponse<?> response, int intento) {
+        int statusCode = response.statusCode();
+
+        if (statusCode == 429) {
+            limitadorTasa.registrarLimiteExcedido();
+        } else if (statusCode < 500) {
+            limitadorTasa.registrarExito();
+        }
+
+        boolean reintentable = switch (statusCode) {
+            case 429, 500, 502, 503, 504 -> true;
+            default -> false;
+        };
+        return reintentable && intento < ApiConfig.MAX_REINTENTOS;
+    }
+
+    /**
+     * Espera antes del siguiente intento: Retry-After si el servidor lo indica,
+     * si no espera exponencial con jitter
+     */
+    private long calcularEspera(HttpResponse<?> response, int intento) {
+        return response.headers().firstValue("Retry-After")
+                .map(this::interpretarRetryAfter)
+                .filter(espera -> espera >= 0)
+                .map(espera -> Math.min(espera, ApiConfig.ESPERA_MAXIMA_REINTENTO_MS))
+                .orElseGet(() -> calcularEsperaExponencial(intento));
+    }
+
+    /**
+     * Retry-After puede venir en segundos o como fecha HTTP
+     */
+    private long interpretarRetryAfter(String valor) {
+        try {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(valor.trim()));
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime fecha = ZonedDateTime.parse(valor.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Math.max(0, Duration.between(ZonedDateTime.now(fecha.getZone()), fecha).toMillis());
+            } catch (DateTimeParseException ex) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Espera exponencial con jitter completo: aleatoria entre 0 y base * 2^intento
+     */
+    private long calcularEsperaExponencial(int intento) {
+        long techo = Math.min(ApiConfig.ESPERA_MAXIMA_REINTENTO_MS,
+                ApiConfig.ESPERA_BASE_REINTENTO_MS << Math.min(intento, 20));
+        return ThreadLocalRandom.current().nextLong(techo + 1);
+    }
+
+    private CompletableFuture<Void> despuesDe(long milisegundos) {
+        if (milisegundos <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> {
+        }, CompletableFuture.delayedExecutor(milisegundos, TimeUnit.MILLISECONDS));
+    }
+
+    private void cerrarSinError(InputStream cuerpo) {
+        try {
+            cuerpo.close();
+        } catch (IOException e) {
+            // El cuerpo de una respuesta descartada no es relevante
+        }
+    }
+
     /**
-     * Construir HttpRequest con configuraciones estándar
+     * Construir HttpRequest con configuraciones estándar. Si hay una entrada en
+     * caché se envían sus validadores para pedir una solicitud condicional.
      */
-    private HttpRequest construirRequest(String url) {
-        return HttpRequest.newBuilder()
+    private HttpRequest construirRequest(String url, EntradaCache entrada) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
                 .uri(URI.create(url))
                 .timeout(Duration.ofSeconds(ApiConfig.TIMEOUT_SECONDS))
                 .header("Accept", "application/json")
                 .header("User-Agent", ApiConfig.USER_AGENT)
                 .header("Accept-Encoding", "gzip, deflate")
-                .GET()
-                .build();
+                .GET();
+
+        if (entrada != null) {
+            if (entrada.etag() != null) {
+                builder.header("If-None-Match", entrada.etag());
+            }
+            if (entrada.ultimaModificacion() != null) {
+                builder.header("If-Modified-Since", entrada.ultimaModificacion());
+            }
+        }
+
+        return builder.build();
     }
 
     /**
-     * Validar respuesta HTTP
+     * Servir un 304 desde la caché, o validar la respuesta y devolver su cuerpo
+     * descomprimido. Si hay que guardarla en caché, el cuerpo se vuelca a disco
+     * y se devuelve un flujo sobre el archivo.
      */
-    private void validarRespuesta(HttpResponse<String> response) {
-        int statusCode = response.statusCode();
+    private InputStream resolverRespuesta(String url, HttpResponse<InputStream> response,
+            Optional<EntradaCache> entrada) throws IOException {
+        if (response.statusCode() == 304 && entrada.isPresent()) {
+            response.body().close();
+            System.out.println("💾 Respuesta sin cambios (304), servida desde caché");
+            return entrada.get().abrirCuerpo();
+        }
+
+        InputStream cuerpo = descomprimir(response);
+
+        boolean exitosa = response.statusCode() >= 200 && response.statusCode() < 300;
+        validarRespuesta(response.statusCode(), exitosa ? null : leerCuerpoError(cuerpo));
+
+        String etag = response.headers().firstValue("ETag").orElse(null);
+        String ultimaModificacion = response.headers().firstValue("Last-Modified").orElse(null);
+
+        if (etag == null && ultimaModificacion == null) {
+            return cuerpo;
+        }
+
+        return cacheHttp.guardarFlujo(url, cuerpo, etag, ultimaModificacion).abrirCuerpo();
+    }
+
+    /**
+     * Envolver el cuerpo según Content-Encoding para descomprimirlo al vuelo,
+     * contando los bytes recibidos por la red y los bytes ya descomprimidos
+     */
+    private InputStream descomprimir(HttpResponse<InputStream> response) throws IOException {
+        String codificacion = response.headers().firstValue("Content-Encoding")
+                .orElse("identity").trim().toLowerCase();
+
+        ContadorBytesInputStream comprimido = new ContadorBytesInputStream(response.body());
+
+        InputStream descomprimido = switch (codificacion) {
+            case "gzip", "x-gzip" -> new GZIPInputStream(comprimido, TAMANO_BUFFER);
+            case "deflate" -> crearFlujoDeflate(comprimido);
+            case "identity", "" -> comprimido;
+            default -> {
+                comprimido.close();
+                throw new IOException("Codificación de contenido no soportada: " + codificacion);
+            }
+        };
+
+        return new ContadorBytesInputStream(descomprimido,
+                bytesCrudos -> registrarTransferencia(codificacion, comprimido.getBytesLeidos(), bytesCrudos));
+    }
+
+    /**
+     * "deflate" en HTTP debería ser zlib, pero algunos servidores envían deflate
+     * sin envoltura: se inspecciona la cabecera para elegir el Inflater correcto
+     */
+    private InputStream crearFlujoDeflate(InputStream comprimido) throws IOException {
+        PushbackInputStream entrada = new PushbackInputStream(comprimido, 2);
+        byte[] cabecera = entrada.readNBytes(2);
+        entrada.unread(cabecera);
 
+        boolean esZlib = cabecera.length == 2
+                && (cabecera[0] & 0x0F) == 8
+                && (((cabecera[0] & 0xFF) << 8) | (cabecera[1] & 0xFF)) % 31 == 0;
+
+        return new InflaterInputStream(entrada, new Inflater(!esZlib), TAMANO_BUFFER);
+    }
+
+    /**
+     * Acumular y mostrar los bytes de una transferencia ya consumida
+     */
+    private void registrarTransferencia(String codificacion, long transferidos, long descomprimidos) {
+        bytesTransferidos.addAndGet(transferidos);
+        bytesDescomprimidos.addAndGet(descomprimidos);
+
+        if ("identity".equals(codificacion) || transferidos == 0) {
+            System.out.printf("📦 Transferencia sin comprimir: %,d bytes%n", descomprimidos);
+        } else {
+            System.out.printf("📦 Transferencia %s: %,d bytes → %,d bytes (%.1fx)%n",
+                    codificacion, transferidos, descomprimidos, (double) descomprimidos / transferidos);
+        }
+    }
+
+    /**
+     * Leer un cuerpo completo como texto UTF-8 y cerrar el flujo
+     */
+    private String leerTexto(InputStream cuerpo) {
+        try (cuerpo) {
+            return new String(cuerpo.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Leer el comienzo de un cuerpo de error para incluirlo en el mensaje
+     */
+    private String leerCuerpoError(InputStream cuerpo) {
+        try (cuerpo) {
+            byte[] bytes = cuerpo.readNBytes(MAX_CARACTERES_CUERPO_ERROR);
+            return new String(bytes, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return "(cuerpo ilegible: " + e.getMessage() + ")";
+        }
+    }
+
+    /**
+     * Validar respuesta HTTP
+     */
+    private void validarRespuesta(int statusCode, String cuerpo) {
         if (statusCode >= 200 && statusCode < 300) {
             // Respuesta exitosa
             System.out.println("✅ Solicitud exitosa - Código: " + statusCode);
@@ -87,7 +421,30 @@ public class HttpClientService {
             default -> "Error HTTP: " + statusCode;
         };
 
-        throw new RuntimeException(mensajeError + " - Respuesta: " + response.body());
+        throw new RuntimeException(mensajeError + " - Respuesta: " + cuerpo);
+    }
+
+    /**
+     * Mostrar el total de bytes transferidos y la tasa de compresión obtenida
+     */
+    public void mostrarEstadisticasTransferencia() {
+        long transferidos = bytesTransferidos.get();
+        long descomprimidos = bytesDescomprimidos.get();
+
+        System.out.println("=== ESTADÍSTICAS DE TRANSFERENCIA ===");
+        System.out.printf("Bytes recibidos por la red: %,d%n", transferidos);
+        System.out.printf("Bytes JSON descomprimidos: %,d%n", descomprimidos);
+        System.out.printf("Tasa de compresión: %.1fx%n",
+                transferidos > 0 ? (double) descomprimidos / transferidos : 1.0);
+        System.out.println("=====================================");
+    }
+
+    public long getBytesTransferidos() {
+        return bytesTransferidos.get();
+    }
+
+    public long getBytesDescomprimidos() {
+        return bytesDescomprimidos.get();
     }
 
     /**
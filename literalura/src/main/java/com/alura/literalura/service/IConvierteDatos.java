@@ -1,9 +1,17 @@
 package com.alura.literalura.service;
 
+import com.alura.literalura.model.Libro;
+import com.alura.literalura.model.RespuestaLibros;
+
+import java.io.InputStream;
+import java.util.function.Consumer;
+
 public interface IConvierteDatos {
     <T> T obtenerDatos(String json, Class<T> clase);
 
     String convertirAJson(Object objeto);
 
     <T> T obtenerDatosConLog(String json, Class<T> clase);
+
+    RespuestaLibros procesarLibrosEnStream(InputStream json, Consumer<Libro> destino);
 }
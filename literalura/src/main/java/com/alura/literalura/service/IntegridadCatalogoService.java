@@ -0,0 +1,114 @@
+package com.alura.literalura.service;
+
+import com.alura.literalura.repository.AutorRepository;
+import com.alura.literalura.repository.LibroRepository;
+import com.alura.literalura.util.ReglaIntegridad;
+import com.alura.literalura.util.ResultadoIntegridad;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongSupplier;
+
+/**
+ * Validación de integridad del catálogo sin cargar entidades: cada regla es un
+ * conteo en SQL (anti-join o agregado) y su reparación un DELETE/UPDATE por
+ * lotes, cada uno en su propia transacción. La memoria no depende del tamaño
+ * del catálogo, así que puede correr de noche sobre la base completa.
+ */
+@Service
+public class IntegridadCatalogoService {
+
+    // Filas por sentencia de reparación (y por transacción)
+    public static final int TAMANO_LOTE = 1000;
+
+    @Autowired
+    private LibroRepository libroRepository;
+
+    @Autowired
+    private AutorRepository autorRepository;
+
+    @Autowired
+    private CacheAutores cacheAutores;
+
+    @Autowired
+    private CacheSegundoNivel cacheSegundoNivel;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Contar las violaciones de cada regla, sin modificar nada (en la réplica,
+     * si hay una)
+     */
+    @Transactional(readOnly = true)
+    public ResultadoIntegridad verificar() {
+        long inicio = System.currentTimeMillis();
+        ResultadoIntegridad resultado = new ResultadoIntegridad();
+
+        for (ReglaIntegridad regla : ReglaIntegridad.values()) {
+            resultado.registrarEncontrados(regla, contar(regla).getAsLong());
+        }
+
+        resultado.setDuracionMs(System.currentTimeMillis() - inicio);
+        return resultado;
+    }
+
+    /**
+     * Contar y reparar, regla por regla en el orden del enum: fusionar duplicados
+     * antes de buscar autores sin libros, y eliminar los libros de autor
+     * inexistente antes también. Se repara de a TAMANO_LOTE filas hasta que no queden.
+     */
+    public ResultadoIntegridad verificarYReparar() {
+        long inicio = System.currentTimeMillis();
+        ResultadoIntegridad resultado = new ResultadoIntegridad();
+
+        try {
+            for (ReglaIntegridad regla : ReglaIntegridad.values()) {
+                // En la principal: un conteo atrasado de la réplica podría saltear la regla
+                long encontrados = transactionTemplate.execute(estado -> contar(regla).getAsLong());
+                resultado.registrarEncontrados(regla, encontrados);
+                if (encontrados == 0) {
+                    continue;
+                }
+
+                IntUnaryOperator reparacion = reparar(regla);
+                int reparados;
+                do {
+                    reparados = reparacion.applyAsInt(TAMANO_LOTE);
+                    resultado.registrarReparados(regla, reparados);
+                } while (reparados == TAMANO_LOTE);
+            }
+        } finally {
+            // Las sentencias por lotes no pasan por Hibernate: ni la caché de
+            // segundo nivel ni la de nombres de autores saben qué se eliminó
+            if (resultado.getTotalReparados() > 0) {
+                cacheSegundoNivel.catalogoModificado();
+                cacheAutores.limpiar();
+            }
+        }
+
+        resultado.setDuracionMs(System.currentTimeMillis() - inicio);
+        return resultado;
+    }
+
+    private LongSupplier contar(ReglaIntegridad regla) {
+        return switch (regla) {
+            case AUTORES_DUPLICADOS -> autorRepository::countAutoresDuplicados;
+            case LIBROS_AUTOR_INEXISTENTE -> libroRepository::countLibrosConAutorInexistente;
+            case AUTORES_SIN_LIBROS -> autorRepository::countAutoresSinLibros;
+            case FECHAS_INVERTIDAS -> autorRepository::countAutoresConFechasInvertidas;
+        };
+    }
+
+    private IntUnaryOperator reparar(ReglaIntegridad regla) {
+        return switch (regla) {
+            case AUTORES_DUPLICADOS -> autorRepository::fusionarAutoresDuplicados;
+            case LIBROS_AUTOR_INEXISTENTE -> libroRepository::eliminarLibrosConAutorInexistente;
+            case AUTORES_SIN_LIBROS -> autorRepository::eliminarAutoresSinLibros;
+            case FECHAS_INVERTIDAS -> autorRepository::borrarFechasInvertidas;
+        };
+    }
+}
@@ -0,0 +1,114 @@
+package com.alura.literalura.service;
+
+import com.alura.literalura.config.ApiConfig;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class LimitadorTasa {
+
+    private static final double FACTOR_REDUCCION = 0.5;
+    private static final double FRACCION_AUMENTO = 0.05;
+
+    private final double tasaMaxima;
+    private final double tasaMinima;
+    private final double capacidad;
+
+    private double tasaActual;
+    private double tokens;
+    private long ultimaRecargaNanos;
+    private boolean suspendido;
+
+    public LimitadorTasa() {
+        this(ApiConfig.SOLICITUDES_POR_SEGUNDO, ApiConfig.SOLICITUDES_POR_SEGUNDO_MINIMO, ApiConfig.RAFAGA_MAXIMA);
+    }
+
+    public LimitadorTasa(double tasaMaxima, double tasaMinima, int capacidad) {
+        this.tasaMaxima = tasaMaxima;
+        this.tasaMinima = tasaMinima;
+        this.capacidad = capacidad;
+        this.tasaActual = tasaMaxima;
+        this.tokens = capacidad;
+        this.ultimaRecargaNanos = System.nanoTime();
+    }
+
+    /**
+     * Esperar (bloqueando) hasta disponer de un token
+     */
+    public void adquirir() throws InterruptedException {
+        long esperaNanos = reservar();
+        if (esperaNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(esperaNanos);
+        }
+    }
+
+    /**
+     * Reservar un token sin bloquear y devolver cuántos nanosegundos hay que
+     * esperar antes de usarlo. Permite respetar la tasa también en el camino
+     * asíncrono, programando el envío en lugar de dormir un hilo.
+     */
+    public synchronized long reservar() {
+        if (suspendido) {
+            return 0;
+        }
+        recargar();
+        tokens -= 1;
+
+        if (tokens >= 0) {
+            return 0;
+        }
+        return (long) (-tokens / tasaActual * TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * El servidor respondió 429: reducir la tasa a la mitad (sin bajar del mínimo)
+     * y descartar la ráfaga acumulada
+     */
+    public synchronized void registrarLimiteExcedido() {
+        recargar();
+        double anterior = tasaActual;
+        tasaActual = Math.max(tasaMinima, tasaActual * FACTOR_REDUCCION);
+        tokens = Math.min(tokens, 0);
+
+        System.out.printf("🐢 Límite de tasa excedido: %.2f → %.2f solicitudes/s%n", anterior, tasaActual);
+    }
+
+    /**
+     * Solicitud exitosa: recuperar la tasa de forma gradual hasta el máximo
+     */
+    public synchronized void registrarExito() {
+        if (tasaActual < tasaMaxima) {
+            recargar();
+            tasaActual = Math.min(tasaMaxima, tasaActual + tasaMaxima * FRACCION_AUMENTO);
+        }
+    }
+
+    /**
+     * Dejar pasar todas las solicitudes sin esperar. Solo para mediciones contra
+     * el servidor simulado, donde la tasa dominaría el tiempo medido.
+     */
+    public synchronized void suspender() {
+        suspendido = true;
+    }
+
+    public synchronized void reanudar() {
+        suspendido = false;
+        tokens = Math.min(tokens, capacidad);
+        ultimaRecargaNanos = System.nanoTime();
+    }
+
+    public synchronized double getTasaActual() {
+        return tasaActual;
+    }
+
+    /**
+     * Sumar los tokens generados desde la última recarga, hasta la capacidad
+     */
+    private void recargar() {
+        long ahora = System.nanoTime();
+        double transcurrido = (ahora - ultimaRecargaNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+        tokens = Math.min(capacidad, tokens + transcurrido * tasaActual);
+        ultimaRecargaNanos = ahora;
+    }
+}
@@ -0,0 +1,162 @@
+package com.alura.literalura.service;
+
+import com.alura.literalura.converter.LibroConverter;
+import com.alura.literalura.entity.AutorEntity;
+import com.alura.literalura.entity.LibroEntity;
+import com.alura.literalura.model.Libro;
+import com.alura.literalura.repository.AutorRepository;
+import com.alura.literalura.repository.LibroRepository;
+import com.alura.literalura.util.ResultadoPersistenciaMasiva;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Service
+public class PersistenciaMasivaService {
+
+    // Libros por transacción (y por sentencia de upsert)
+    public static final int TAMANO_LOTE = 1000;
+
+    @Autowired
+    private LibroRepository libroRepository;
+
+    @Autowired
+    private AutorRepository autorRepository;
+
+    @Autowired
+    private CacheAutores cacheAutores;
+
+    @Autowired
+    private CacheSegundoNivel cacheSegundoNivel;
+
+    @Autowired
+    private LibroConverter libroConverter;
+
+    /**
+     * Persistir miles de libros ya convertidos desde la API con el mismo criterio
+     * que PersistenciaService.guardarOActualizar: los nuevos se insertan, a los ya
+     * registrados se les refrescan las descargas, y los que Gutendex publica sin
+     * autor quedan con autor nulo. Por lote: una consulta para los autores que no
+     * están en memoria, un upsert para los que faltan y otro para los libros.
+     */
+    @Transactional
+    public ResultadoPersistenciaMasiva persistirLibros(Collection<Libro> libros) {
+        ResultadoPersistenciaMasiva resultado = new ResultadoPersistenciaMasiva();
+        List<Libro> pendientes = new ArrayList<>(libros);
+
+        for (int inicio = 0; inicio < pendientes.size(); inicio += TAMANO_LOTE) {
+            List<Libro> lote = pendientes.subList(inicio, Math.min(inicio + TAMANO_LOTE, pendientes.size()));
+            persistirLote(lote, resultado);
+        }
+
+        return resultado;
+    }
+
+    private void persistirLote(List<Libro> lote, ResultadoPersistenciaMasiva resultado) {
+        long inicio = System.currentTimeMillis();
+
+        // 1. Convertir y validar, descartando repetidos dentro del lote (ordenados por
+        // ID, como los toma el upsert)
+        Map<Long, LibroEntity> candidatos = new TreeMap<>();
+        for (Libro libroDto : lote) {
+            try {
+                LibroEntity libro = libroConverter.crearEntityConValidacion(libroDto);
+                if (libro.getAutor() != null && libro.getAutor().getNombre() == null) {
+                    libro.setAutor(null);
+                }
+                candidatos.putIfAbsent(libro.getId(), libro);
+            } catch (IllegalArgumentException e) {
+                resultado.registrarLibroDescartado();
+            }
+        }
+
+        if (candidatos.isEmpty()) {
+            resultado.registrarLote(System.currentTimeMillis() - inicio);
+            return;
+        }
+
+        // 2. Resolver todos los autores del lote; crear los que faltan
+        Map<String, Long> autorIds = resolverAutores(candidatos.values(), resultado);
+
+        // 3. Un solo upsert para todo el lote
+        int cantidad = candidatos.size();
+        Long[] ids = new Long[cantidad];
+        String[] titulos = new String[cantidad];
+        Long[] autores = new Long[cantidad];
+        String[] idiomas = new String[cantidad];
+        Integer[] descargas = new Integer[cantidad];
+        String[] urls = new String[cantidad];
+
+        int i = 0;
+        for (LibroEntity libro : candidatos.values()) {
+            ids[i] = libro.getId();
+            titulos[i] = libro.getTitulo();
+            autores[i] = libro.getAutor() != null ? autorIds.get(libro.getAutor().getNombre()) : null;
+            idiomas[i] = libro.getIdioma();
+            descargas[i] = libro.getNumeroDescargas();
+            urls[i] = libro.getUrlDescarga();
+            i++;
+        }
+
+        List<Boolean> insertados = libroRepository.upsertLote(ids, titulos, autores, idiomas, descargas, urls);
+        cacheSegundoNivel.librosModificados();
+
+        int nuevos = (int) insertados.stream().filter(Boolean::booleanValue).count();
+        resultado.registrarLibrosInsertados(nuevos);
+        resultado.registrarLibrosExistentes(insertados.size() - nuevos);
+        resultado.registrarLote(System.currentTimeMillis() - inicio);
+    }
+
+    /**
+     * Mapa nombre → ID de los autores del lote: los existentes salen de la caché
+     * de autores (una consulta IN para los que no están en memoria) y los que
+     * faltan se crean con un upsert por nombre, así una ingesta o un guardado en
+     * paralelo que cree el mismo autor no hace fallar el lote
+     */
+    private Map<String, Long> resolverAutores(Collection<LibroEntity> libros, ResultadoPersistenciaMasiva resultado) {
+        Map<String, AutorEntity> autores = new HashMap<>();
+        for (LibroEntity libro : libros) {
+            if (libro.getAutor() != null) {
+                autores.putIfAbsent(libro.getAutor().getNombre(), libro.getAutor());
+            }
+        }
+
+        Map<String, Long> ids = new HashMap<>(cacheAutores.precargar(autores.keySet()));
+        List<AutorEntity> faltantes = autores.values().stream()
+                .filter(autor -> !ids.containsKey(autor.getNombre()))
+                .toList();
+
+        if (faltantes.isEmpty()) {
+            return ids;
+        }
+
+        List<Object[]> filas = autorRepository.upsertPorNombres(
+                faltantes.stream().map(AutorEntity::getNombre).toArray(String[]::new),
+                faltantes.stream().map(AutorEntity::getAnoNacimiento).toArray(Integer[]::new),
+                faltantes.stream().map(AutorEntity::getAnoFallecimiento).toArray(Integer[]::new));
+
+        int creados = 0;
+        for (Object[] fila : filas) {
+            String nombre = (String) fila[0];
+            Long id = ((Number) fila[1]).longValue();
+            ids.put(nombre, id);
+            cacheAutores.registrar(nombre, id);
+            if ((Boolean) fila[2]) {
+                creados++;
+            } else {
+                // Lo creó otra ingesta mientras tanto: sus años pudieron completarse
+                cacheSegundoNivel.autorModificado(id);
+            }
+        }
+
+        resultado.registrarAutoresCreados(creados);
+        return ids;
+    }
+}
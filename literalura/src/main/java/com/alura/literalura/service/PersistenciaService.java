@@ -1,13 +1,21 @@
 package com.alura.literalura.service;
 
 import com.alura.literalura.converter.LibroConverter;
+import com.alura.literalura.dto.Cursor;
+import com.alura.literalura.dto.ResumenAutor;
+import com.alura.literalura.dto.ResumenLibro;
 import com.alura.literalura.entity.AutorEntity;
 import com.alura.literalura.entity.LibroEntity;
 import com.alura.literalura.model.Libro;
 import com.alura.literalura.model.RespuestaLibros;
 import com.alura.literalura.repository.AutorRepository;
+import com.alura.literalura.repository.EstadisticaIdiomaRepository;
 import com.alura.literalura.repository.LibroRepository;
+import com.alura.literalura.util.PaginadorKeyset;
+import com.alura.literalura.util.ResultadoIntegridad;
+import org.springframework.data.domain.Limit;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,25 +26,53 @@ import java.util.Optional;
 @Transactional
 public class PersistenciaService {
 
+    private static final int RESULTADOS_BUSQUEDA_LOCAL = 10;
+
+    // Elementos por página en los listados (paginación por clave)
+    public static final int TAMANO_PAGINA_LISTADO = 20;
+
     @Autowired
     private LibroRepository libroRepository;
 
+    @Autowired
+    private EstadisticaIdiomaRepository estadisticaIdiomaRepository;
+
     @Autowired
     private AutorRepository autorRepository;
 
     @Autowired
+    @Lazy
     private GutendxServiceMejorado gutendxService;
 
     @Autowired
     private LibroConverter libroConverter;
 
+    @Autowired
+    private CacheAutores cacheAutores;
+
+    @Autowired
+    private CacheSegundoNivel cacheSegundoNivel;
+
+    @Autowired
+    private IntegridadCatalogoService integridadCatalogoService;
+
     /**
-     * Buscar libro en API y persistir en base de datos
+     * Buscar libro primero en el catálogo local y, si no está, en la API para
+     * persistirlo en base de datos
      */
     public LibroEntity buscarYPersistirLibro(String titulo) {
         try {
             System.out.println("🔍 Iniciando búsqueda y persistencia para: " + titulo);
 
+            // 0. Catálogo local: si ese título ya está registrado no hace falta ir a
+            // Gutendex. Solo el título exacto (salvo mayúsculas y espacios): una
+            // coincidencia parcial del texto completo no es el libro pedido
+            Optional<LibroEntity> local = libroRepository.findByTituloNormalizado(titulo);
+            if (local.isPresent()) {
+                System.out.println("📚 Libro encontrado en la base de datos local");
+                return local.get();
+            }
+
             // 1. Buscar en la API
             RespuestaLibros respuesta = gutendxService.buscarLibros(titulo);
 
@@ -49,32 +85,7 @@ public class PersistenciaService {
             Libro libroDto = respuesta.getLibros().get(0);
             System.out.println("📖 Libro encontrado en API: " + libroDto.getTitulo());
 
-            // 3. Verificar si ya existe en BD
-            if (libroRepository.existsById(libroDto.getId())) {
-                System.out.println("⚠️ Libro ya existe en la base de datos");
-                return libroRepository.findById(libroDto.getId()).orElse(null);
-            }
-
-            // 4. Convertir DTO a Entity
-            LibroEntity libroEntity = libroConverter.crearEntityConValidacion(libroDto);
-
-            // 5. Persistir autor (buscar existente o crear nuevo)
-            if (libroEntity.getAutor() != null) {
-                AutorEntity autorPersistido = persistirAutor(libroEntity.getAutor());
-                libroEntity.setAutor(autorPersistido);
-            }
-
-            // 6. Persistir libro
-            LibroEntity libroGuardado = libroRepository.save(libroEntity);
-            System.out.println("✅ Libro persistido exitosamente con ID: " + libroGuardado.getId());
-
-            // 7. Actualizar relación bidireccional
-            if (libroGuardado.getAutor() != null) {
-                libroGuardado.getAutor().agregarLibro(libroGuardado);
-                autorRepository.save(libroGuardado.getAutor());
-            }
-
-            return libroGuardado;
+            return persistirLibro(libroDto);
 
         } catch (Exception e) {
             System.err.println("❌ Error en persistencia: " + e.getMessage());
@@ -84,101 +95,120 @@ public class PersistenciaService {
     }
 
     /**
-     * Persistir autor (buscar existente o crear nuevo)
+     * Persistir un libro ya obtenido de la API (para miles de libros usar
+     * PersistenciaMasivaService)
      */
-    private AutorEntity persistirAutor(AutorEntity autor) {
-        if (autor == null || autor.getNombre() == null) {
-            System.out.println("⚠️ Autor nulo o sin nombre, no se puede persistir");
-            return null;
-        }
-
-        // Buscar autor existente por nombre
-        Optional<AutorEntity> autorExistente = autorRepository.findByNombre(autor.getNombre());
+    public LibroEntity persistirLibro(Libro libroDto) {
+        LibroEntity libroEntity = libroConverter.crearEntityConValidacion(libroDto);
+        guardarOActualizar(libroEntity);
+        return libroEntity;
+    }
 
-        if (autorExistente.isPresent()) {
-            System.out.println("👤 Autor ya existe en BD: " + autor.getNombre());
-            return autorExistente.get();
+    /**
+     * Insertar o actualizar un libro ya convertido. Único camino de guardado de
+     * un libro suelto (búsquedas por título de CatalogoService y
+     * ConsultaLibrosService incluidas).
+     */
+    public boolean guardarOActualizar(LibroEntity libroEntity) {
+        // 1. Resolver autor (caché en memoria, o crear nuevo)
+        libroEntity.setAutor(cacheAutores.resolverAutor(libroEntity.getAutor()));
+
+        // 2. Upsert: si ya existe solo se refrescan las descargas. Reemplaza a
+        // existsById + findById + save, y es seguro con ingestas en paralelo
+        boolean insertado = libroRepository.upsert(libroEntity);
+        cacheSegundoNivel.librosModificados();
+        if (insertado) {
+            System.out.println("✅ Libro persistido exitosamente con ID: " + libroEntity.getId());
         } else {
-            // Crear nuevo autor
-            AutorEntity nuevoAutor = autorRepository.save(autor);
-            System.out
-                    .println("👤 Nuevo autor persistido: " + nuevoAutor.getNombre() + " con ID: " + nuevoAutor.getId());
-            return nuevoAutor;
+            System.out.println("⚠️ Libro ya existe en la base de datos; descargas actualizadas");
         }
+        return insertado;
     }
 
     /**
-     * Listar todos los libros con información de persistencia
+     * Buscar en el catálogo local por palabras del título o del autor, con los
+     * resultados más relevantes (y más descargados) primero
      */
-    public List<LibroEntity> listarTodosLosLibrosPersistidos() {
-        System.out.println("📚 Obteniendo libros de la base de datos...");
+    @Transactional(readOnly = true)
+    public List<LibroEntity> buscarEnCatalogoLocal(String texto) {
+        System.out.println("🔎 Buscando \"" + texto + "\" en el catálogo local...");
 
-        List<LibroEntity> libros = libroRepository.findAllByOrderByTituloAsc();
+        List<LibroEntity> libros = libroRepository.buscarTextoCompleto(texto, RESULTADOS_BUSQUEDA_LOCAL);
 
-        System.out.println("📊 Libros encontrados en BD: " + libros.size());
+        System.out.println("📊 Resultados locales: " + libros.size());
 
         return libros;
     }
 
     /**
-     * Listar todos los autores con información de persistencia
+     * Recorrer todos los libros por título, de a una página por consulta
      */
-    public List<AutorEntity> listarTodosLosAutoresPersistidos() {
-        System.out.println("👥 Obteniendo autores de la base de datos...");
-
-        List<AutorEntity> autores = autorRepository.findAllByOrderByNombreAsc();
+    public PaginadorKeyset<ResumenLibro, String> paginarLibrosPorTitulo(int tamanoPagina) {
+        return new PaginadorKeyset<>(tamanoPagina,
+                (cursor, tamano) -> cursor == null
+                        ? libroRepository.findResumenesPorTitulo(Limit.of(tamano))
+                        : libroRepository.findResumenesPorTituloDespuesDe(cursor.clave(), cursor.id(), Limit.of(tamano)),
+                libro -> new Cursor<>(libro.titulo(), libro.id()));
+    }
 
-        System.out.println("📊 Autores encontrados en BD: " + autores.size());
+    /**
+     * Recorrer los libros de un idioma, más descargados primero, de a una página
+     */
+    public PaginadorKeyset<ResumenLibro, Integer> paginarLibrosPorIdioma(String idioma, int tamanoPagina) {
+        String codigo = idioma.toLowerCase();
+        return new PaginadorKeyset<>(tamanoPagina,
+                (cursor, tamano) -> cursor == null
+                        ? libroRepository.findResumenesPorIdioma(codigo, Limit.of(tamano))
+                        : libroRepository.findResumenesPorIdiomaDespuesDe(codigo, cursor.clave(), cursor.id(), Limit.of(tamano)),
+                libro -> new Cursor<>(libro.numeroDescargas() != null ? libro.numeroDescargas() : 0, libro.id()));
+    }
 
-        return autores;
+    /**
+     * Recorrer los resúmenes de autores por nombre, de a una página
+     */
+    public PaginadorKeyset<ResumenAutor, String> paginarAutores(int tamanoPagina) {
+        return new PaginadorKeyset<>(tamanoPagina,
+                (cursor, tamano) -> cursor == null
+                        ? autorRepository.findPaginaResumenesPorNombre(Limit.of(tamano))
+                        : autorRepository.findPaginaResumenesPorNombreDespuesDe(cursor.clave(), Limit.of(tamano)),
+                autor -> new Cursor<>(autor.nombre(), autor.id()));
     }
 
     /**
      * Listar autores vivos en un año específico
      */
-    public List<AutorEntity> listarAutoresVivosEnAno(Integer ano) {
+    @Transactional(readOnly = true)
+    public List<ResumenAutor> listarAutoresVivosEnAno(Integer ano) {
         System.out.println("📅 Buscando autores vivos en " + ano + " en la base de datos...");
 
-        List<AutorEntity> autores = autorRepository.findAutoresVivosEnAno(ano);
+        List<ResumenAutor> autores = autorRepository.findResumenesVivosEnAno(ano);
 
         System.out.println("📊 Autores vivos en " + ano + ": " + autores.size());
 
         return autores;
     }
 
-    /**
-     * Listar libros por idioma desde la base de datos
-     */
-    public List<LibroEntity> listarLibrosPorIdioma(String idioma) {
-        System.out.println("🌍 Buscando libros en idioma '" + idioma + "' en la base de datos...");
-
-        List<LibroEntity> libros = libroRepository.findByIdiomaOrderByNumeroDescargasDesc(idioma.toLowerCase());
-
-        System.out.println("📊 Libros en " + idioma + ": " + libros.size());
-
-        return libros;
-    }
-
     /**
      * Obtener estadísticas completas de la base de datos
      */
+    @Transactional(readOnly = true)
     public void mostrarEstadisticasCompletas() {
         System.out.println("📊 === ESTADÍSTICAS COMPLETAS DE LA BASE DE DATOS ===");
 
         // Estadísticas básicas
-        long totalLibros = libroRepository.count();
+        long totalLibros = estadisticaIdiomaRepository.contarLibros();
         long totalAutores = autorRepository.count();
 
         System.out.println("📚 Total de libros: " + totalLibros);
         System.out.println("👥 Total de autores: " + totalAutores);
 
         // Estadísticas de idiomas
-        List<Object[]> estadisticasIdioma = libroRepository.countLibrosPorIdioma();
+        List<Object[]> estadisticasIdioma = estadisticaIdiomaRepository.countLibrosPorIdioma();
         System.out.println("\n🌍 Distribución por idiomas:");
         estadisticasIdioma.forEach(stat -> System.out.println("   " + stat[0] + ": " + stat[1] + " libros"));
 
         // Estadísticas de descargas
-        List<Object[]> estadisticasDescargas = libroRepository.getEstadisticasDescargas();
+        List<Object[]> estadisticasDescargas = estadisticaIdiomaRepository.getEstadisticasDescargas();
         if (!estadisticasDescargas.isEmpty()) {
             Object[] stats = estadisticasDescargas.get(0);
             System.out.println("\n📥 Estadísticas de descargas:");
@@ -196,35 +226,14 @@ public class PersistenciaService {
     }
 
     /**
-     * Validar integridad de la base de datos
+     * Validar integridad de la base de datos (solo conteos; para reparar usar
+     * IntegridadCatalogoService.verificarYReparar)
      */
-    public void validarIntegridadBaseDatos() {
-        System.out.println("🔍 === VALIDACIÓN DE INTEGRIDAD ===");
-
-        // Verificar libros sin autor
-        List<LibroEntity> libros = libroRepository.findAll();
-        long librosSinAutor = libros.stream()
-                .filter(libro -> libro.getAutor() == null)
-                .count();
-
-        if (librosSinAutor > 0) {
-            System.out.println("⚠️ Libros sin autor: " + librosSinAutor);
-        } else {
-            System.out.println("✅ Todos los libros tienen autor asignado");
-        }
-
-        // Verificar autores sin libros
-        List<AutorEntity> autoresSinLibros = autorRepository.findAll().stream()
-                .filter(autor -> autor.getLibros() == null || autor.getLibros().isEmpty())
-                .toList();
-
-        if (!autoresSinLibros.isEmpty()) {
-            System.out.println("⚠️ Autores sin libros: " + autoresSinLibros.size());
-        } else {
-            System.out.println("✅ Todos los autores tienen al menos un libro");
-        }
-
-        System.out.println("═".repeat(50));
+    @Transactional(readOnly = true)
+    public ResultadoIntegridad validarIntegridadBaseDatos() {
+        ResultadoIntegridad resultado = integridadCatalogoService.verificar();
+        System.out.println(resultado);
+        return resultado;
     }
 
     /**
@@ -252,6 +261,7 @@ public class PersistenciaService {
                 List<LibroEntity> librosDelAutor = libroRepository.findByAutorId(autor.getId());
                 if (librosDelAutor.isEmpty()) {
                     autorRepository.delete(autor);
+                    cacheAutores.invalidar(autor.getNombre());
                     System.out.println("✅ Autor eliminado (sin libros): " + autor.getNombre());
                 }
             }
@@ -235,6 +235,14 @@ public class ProcesadorDatos {
             }
         }
 
+        // Filtro por número máximo de descargas (sin descargas cuenta como 0)
+        if (criterios.getDescargasMaximas() != null) {
+            int descargas = libro.getNumeroDescargas() != null ? libro.getNumeroDescargas() : 0;
+            if (descargas > criterios.getDescargasMaximas()) {
+                return false;
+            }
+        }
+
         return true;
     }
 
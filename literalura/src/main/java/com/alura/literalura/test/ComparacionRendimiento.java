@@ -0,0 +1,104 @@
+package com.alura.literalura.test;
+
+import com.alura.literalura.config.ApiConfig;
+import com.alura.literalura.config.EjecutorIngesta;
+import com.alura.literalura.model.RespuestaLibros;
+import com.alura.literalura.service.ConvierteDatos;
+import com.alura.literalura.service.CosechadorCatalogoService;
+import com.alura.literalura.service.HttpClientService;
+import com.alura.literalura.service.LimitadorTasa;
+import com.alura.literalura.util.ResultadoCosecha;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+
+@Component
+@Lazy
+public class ComparacionRendimiento {
+
+    @Autowired
+    private HttpClientService httpClientService;
+
+    @Autowired
+    private ConvierteDatos conversor;
+
+    @Autowired
+    private CosechadorCatalogoService cosechador;
+
+    @Autowired
+    private LimitadorTasa limitadorTasa;
+
+    /**
+     * Comparar el camino secuencial original contra el modo de hilos virtuales
+     * sobre la misma cantidad de páginas (distintas, para no favorecer al segundo
+     * con la caché HTTP). Ninguno de los dos persiste: se mide descarga + conversión.
+     * Se ejecuta contra el Gutendex simulado y sin limitador de tasa: con él, los
+     * dos modos medirían las mismas solicitudes por segundo.
+     */
+    public void ejecutar(int paginas) throws Exception {
+        System.out.println("🏁 === COMPARACIÓN DE RENDIMIENTO: SECUENCIAL vs HILOS VIRTUALES ===");
+        if (ApiConfig.BASE_URL.equals(ApiConfig.obtenerBaseUrl())) {
+            System.out.println("⚠️ La comparación no se ejecuta contra Gutendex: inicie el servidor simulado");
+            System.out.println("   (ServidorGutendexSimulado) y use -D" + ApiConfig.PROPIEDAD_BASE_URL + "=<su URL>");
+            return;
+        }
+
+        limitadorTasa.suspender();
+        try {
+            comparar(paginas);
+        } finally {
+            limitadorTasa.reanudar();
+        }
+    }
+
+    private void comparar(int paginas) throws Exception {
+        String plantilla = ApiConfig.obtenerBaseUrl() + "?page=1";
+
+        // 1. Camino secuencial: String completo + árbol Jackson, una página tras otra
+        long inicio = System.nanoTime();
+        int librosSecuencial = 0;
+        for (int pagina = 1; pagina <= paginas; pagina++) {
+            String json = httpClientService.realizarSolicitud(ApiConfig.obtenerBaseUrl() + "?page=" + pagina);
+            RespuestaLibros respuesta = conversor.obtenerDatos(json, RespuestaLibros.class);
+            librosSecuencial += respuesta.getLibros() != null ? respuesta.getLibros().size() : 0;
+        }
+        double segundosSecuencial = (System.nanoTime() - inicio) / 1e9;
+
+        // 2. Hilos virtuales: una tarea por página
+        Optional<ExecutorService> hilosVirtuales = EjecutorIngesta.crearEjecutorHilosVirtuales();
+        if (hilosVirtuales.isEmpty()) {
+            System.out.println("⚠️ Esta JVM no soporta hilos virtuales (requiere Java 21+).");
+            mostrarFila("Secuencial", paginas, librosSecuencial, segundosSecuencial);
+            return;
+        }
+
+        ResultadoCosecha resultado = new ResultadoCosecha();
+        ExecutorService ejecutor = hilosVirtuales.get();
+        inicio = System.nanoTime();
+        try {
+            cosechador.cosecharEnHilosVirtuales(ejecutor, plantilla, paginas + 1, paginas * 2,
+                    ApiConfig.MAX_SOLICITUDES_CONCURRENTES_VIRTUALES, libro -> {
+                    }, resultado);
+        } finally {
+            ejecutor.shutdown();
+        }
+        double segundosVirtuales = (System.nanoTime() - inicio) / 1e9;
+
+        System.out.println("┌──────────────────┬─────────┬─────────┬────────────┬────────────┐");
+        System.out.println("│ Modo             │ Páginas │ Libros  │ Páginas/s  │ Libros/s   │");
+        System.out.println("├──────────────────┼─────────┼─────────┼────────────┼────────────┤");
+        mostrarFila("Secuencial", paginas, librosSecuencial, segundosSecuencial);
+        mostrarFila("Hilos virtuales", resultado.getPaginasProcesadas(), resultado.getLibrosRecibidos(),
+                segundosVirtuales);
+        System.out.println("└──────────────────┴─────────┴─────────┴────────────┴────────────┘");
+        System.out.printf("🚀 Aceleración: %.1fx%n", segundosSecuencial / segundosVirtuales);
+    }
+
+    private void mostrarFila(String modo, int paginas, int libros, double segundos) {
+        System.out.printf("│ %-16s │ %7d │ %7d │ %10.2f │ %10.1f │%n",
+                modo, paginas, libros, paginas / segundos, libros / segundos);
+    }
+}
@@ -7,12 +7,15 @@ import com.alura.literalura.util.CriteriosFiltro;
 import com.alura.literalura.util.EstadisticasDetalladas;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
 import java.util.Map;
 
+// Pruebas contra la API real: solo con --spring.profiles.active=diagnostico
 @Component
+@Profile("diagnostico")
 public class TestConversionDatos implements CommandLineRunner {
 
     @Autowired
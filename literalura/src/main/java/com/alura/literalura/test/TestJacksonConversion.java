@@ -5,11 +5,14 @@ import com.alura.literalura.model.RespuestaLibros;
 import com.alura.literalura.service.GutendxServiceMejorado;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
 
+// Pruebas contra la API real: solo con --spring.profiles.active=diagnostico
 @Component
+@Profile("diagnostico")
 public class TestJacksonConversion implements CommandLineRunner {
 
     @Autowired
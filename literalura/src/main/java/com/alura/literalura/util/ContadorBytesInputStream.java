@@ -0,0 +1,73 @@
+package com.alura.literalura.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.LongConsumer;
+
+public class ContadorBytesInputStream extends FilterInputStream {
+    private long bytesLeidos;
+    private final LongConsumer alCerrar;
+    private boolean cerrado;
+
+    // Constructores
+    public ContadorBytesInputStream(InputStream entrada) {
+        this(entrada, bytes -> {
+        });
+    }
+
+    public ContadorBytesInputStream(InputStream entrada, LongConsumer alCerrar) {
+        super(entrada);
+        this.alCerrar = alCerrar;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int valor = super.read();
+        if (valor != -1) {
+            bytesLeidos++;
+        }
+        return valor;
+    }
+
+    @Override
+    public int read(byte[] buffer, int desplazamiento, int longitud) throws IOException {
+        int leidos = super.read(buffer, desplazamiento, longitud);
+        if (leidos > 0) {
+            bytesLeidos += leidos;
+        }
+        return leidos;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long saltados = super.skip(n);
+        bytesLeidos += saltados;
+        return saltados;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * Cerrar el flujo y notificar una sola vez el total de bytes leídos
+     */
+    @Override
+    public void close() throws IOException {
+        if (cerrado) {
+            return;
+        }
+        cerrado = true;
+        try {
+            super.close();
+        } finally {
+            alCerrar.accept(bytesLeidos);
+        }
+    }
+
+    public long getBytesLeidos() {
+        return bytesLeidos;
+    }
+}
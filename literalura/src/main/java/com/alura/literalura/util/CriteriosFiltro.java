@@ -5,6 +5,7 @@ public class CriteriosFiltro {
     private String autor;
     private String titulo;
     private Integer descargasMinimas;
+    private Integer descargasMaximas;
 
     // Constructores
     public CriteriosFiltro() {
@@ -50,6 +51,19 @@ public class CriteriosFiltro {
         this.descargasMinimas = descargasMinimas;
     }
 
+    public Integer getDescargasMaximas() {
+        return descargasMaximas;
+    }
+
+    public void setDescargasMaximas(Integer descargasMaximas) {
+        this.descargasMaximas = descargasMaximas;
+    }
+
+    public boolean estaVacio() {
+        return idioma == null && autor == null && titulo == null
+                && descargasMinimas == null && descargasMaximas == null;
+    }
+
     // Métodos de utilidad
     public static CriteriosFiltro porIdioma(String idioma) {
         CriteriosFiltro criterios = new CriteriosFiltro();
@@ -75,9 +89,16 @@ public class CriteriosFiltro {
         return criterios;
     }
 
+    // Libros con a lo sumo esa cantidad de descargas (sin descargas cuenta como 0)
+    public static CriteriosFiltro porDescargasMaximas(Integer maximas) {
+        CriteriosFiltro criterios = new CriteriosFiltro();
+        criterios.setDescargasMaximas(maximas);
+        return criterios;
+    }
+
     @Override
     public String toString() {
-        return String.format("Filtros: idioma=%s, autor=%s, titulo=%s, descargas>=%d",
-                idioma, autor, titulo, descargasMinimas);
+        return String.format("Filtros: idioma=%s, autor=%s, titulo=%s, descargas>=%d, descargas<=%d",
+                idioma, autor, titulo, descargasMinimas, descargasMaximas);
     }
 }
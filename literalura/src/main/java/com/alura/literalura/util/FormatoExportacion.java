@@ -0,0 +1,22 @@
+package com.alura.literalura.util;
+
+import java.nio.file.Path;
+
+public enum FormatoExportacion {
+    CSV,
+    JSONL;
+
+    /**
+     * Formato según la extensión del archivo (.csv, .jsonl o .ndjson)
+     */
+    public static FormatoExportacion desdeArchivo(Path archivo) {
+        String nombre = archivo.getFileName().toString().toLowerCase();
+        if (nombre.endsWith(".csv")) {
+            return CSV;
+        }
+        if (nombre.endsWith(".jsonl") || nombre.endsWith(".ndjson")) {
+            return JSONL;
+        }
+        throw new IllegalArgumentException("Extensión no soportada (use .csv o .jsonl): " + archivo);
+    }
+}
@@ -0,0 +1,98 @@
+package com.alura.literalura.util;
+
+import com.alura.literalura.dto.Cursor;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Recorrido perezoso de un listado con paginación por clave: cada página se
+ * consulta recién al pedirla, partiendo del cursor de la anterior, así que en
+ * memoria solo hay una página a la vez (sin OFFSET, que recorre lo ya listado)
+ */
+public class PaginadorKeyset<E, K> implements Iterator<List<E>> {
+
+    /**
+     * Consulta de una página; cursor null para la primera
+     */
+    @FunctionalInterface
+    public interface ConsultaPagina<E, K> {
+        List<E> buscar(Cursor<K> cursor, int tamanoPagina);
+    }
+
+    private final ConsultaPagina<E, K> consulta;
+    private final Function<E, Cursor<K>> cursorDe;
+    private final int tamanoPagina;
+
+    private Cursor<K> cursor;
+    private List<E> siguiente;
+    private boolean agotado;
+    private int paginasLeidas;
+
+    public PaginadorKeyset(int tamanoPagina, ConsultaPagina<E, K> consulta, Function<E, Cursor<K>> cursorDe) {
+        if (tamanoPagina <= 0) {
+            throw new IllegalArgumentException("El tamaño de página debe ser positivo: " + tamanoPagina);
+        }
+        this.tamanoPagina = tamanoPagina;
+        this.consulta = consulta;
+        this.cursorDe = cursorDe;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (siguiente == null && !agotado) {
+            cargarPagina();
+        }
+        return siguiente != null && !siguiente.isEmpty();
+    }
+
+    @Override
+    public List<E> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No hay más páginas");
+        }
+        List<E> pagina = siguiente;
+        siguiente = null;
+        return pagina;
+    }
+
+    /**
+     * Los elementos de todas las páginas, consultadas a medida que se consumen
+     */
+    public Stream<E> elementos() {
+        Spliterator<List<E>> paginas = Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(paginas, false).flatMap(List::stream);
+    }
+
+    private void cargarPagina() {
+        List<E> pagina = consulta.buscar(cursor, tamanoPagina);
+        paginasLeidas++;
+
+        // Una página incompleta es la última: no hace falta otra consulta para saberlo
+        if (pagina.size() < tamanoPagina) {
+            agotado = true;
+        }
+        if (!pagina.isEmpty()) {
+            cursor = cursorDe.apply(pagina.get(pagina.size() - 1));
+        }
+        siguiente = pagina;
+    }
+
+    public int getTamanoPagina() {
+        return tamanoPagina;
+    }
+
+    public int getPaginasLeidas() {
+        return paginasLeidas;
+    }
+
+    public Cursor<K> getCursor() {
+        return cursor;
+    }
+}
@@ -0,0 +1,28 @@
+package com.alura.literalura.util;
+
+/**
+ * Reglas de integridad del catálogo. Cada una se cuenta con una sola consulta
+ * y se repara por lotes (ver IntegridadCatalogoService)
+ */
+public enum ReglaIntegridad {
+    AUTORES_DUPLICADOS("Autores con nombre repetido (normalizado)", "fusionados con el de menor ID"),
+    LIBROS_AUTOR_INEXISTENTE("Libros con autor inexistente", "eliminados"),
+    AUTORES_SIN_LIBROS("Autores sin libros", "eliminados"),
+    FECHAS_INVERTIDAS("Autores con nacimiento posterior al fallecimiento", "años borrados");
+
+    private final String descripcion;
+    private final String reparacion;
+
+    ReglaIntegridad(String descripcion, String reparacion) {
+        this.descripcion = descripcion;
+        this.reparacion = reparacion;
+    }
+
+    public String getDescripcion() {
+        return descripcion;
+    }
+
+    public String getReparacion() {
+        return reparacion;
+    }
+}
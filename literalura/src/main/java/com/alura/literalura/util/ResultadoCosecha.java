@@ -0,0 +1,107 @@
+package com.alura.literalura.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ResultadoCosecha {
+    private int paginasProcesadas;
+    private int librosRecibidos;
+    private int librosEntregados;
+    private int librosPersistidos;
+    private int librosConError;
+    private long duracionMs;
+    private final List<String> paginasFallidas = new ArrayList<>();
+
+    // Constructor vacío
+    public ResultadoCosecha() {
+    }
+
+    // Métodos de registro (sincronizados: en modo de hilos virtuales varias
+    // páginas se procesan a la vez)
+    public synchronized void registrarPagina() {
+        paginasProcesadas++;
+    }
+
+    public synchronized void registrarLibroRecibido() {
+        librosRecibidos++;
+    }
+
+    public synchronized void registrarLibroEntregado() {
+        librosEntregados++;
+    }
+
+    public synchronized void registrarLibroConError() {
+        librosConError++;
+    }
+
+    // Los libros entregados se guardan por lotes: solo cuentan como persistidos
+    // los que el lote confirmó, y los de un lote fallido o descartados son errores
+    public synchronized void registrarPersistencia(ResultadoPersistenciaMasiva persistencia) {
+        librosPersistidos += persistencia.getLibrosInsertados() + persistencia.getLibrosExistentes();
+        librosConError += persistencia.getLibrosFallidos() + persistencia.getLibrosDescartados();
+    }
+
+    public synchronized void registrarPaginaFallida(String url) {
+        paginasFallidas.add(url);
+    }
+
+    // Getters y Setters
+    public synchronized int getPaginasProcesadas() {
+        return paginasProcesadas;
+    }
+
+    public synchronized int getLibrosRecibidos() {
+        return librosRecibidos;
+    }
+
+    public synchronized int getLibrosEntregados() {
+        return librosEntregados;
+    }
+
+    public synchronized int getLibrosPersistidos() {
+        return librosPersistidos;
+    }
+
+    public synchronized int getLibrosConError() {
+        return librosConError;
+    }
+
+    public synchronized List<String> getPaginasFallidas() {
+        return List.copyOf(paginasFallidas);
+    }
+
+    public long getDuracionMs() {
+        return duracionMs;
+    }
+
+    public void setDuracionMs(long duracionMs) {
+        this.duracionMs = duracionMs;
+    }
+
+    public synchronized double getLibrosPorSegundo() {
+        return duracionMs > 0 ? librosRecibidos * 1000.0 / duracionMs : 0.0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("""
+                🌾 === RESULTADO DE LA COSECHA ===
+                📄 Páginas procesadas: %d
+                ❌ Páginas fallidas: %d
+                📚 Libros recibidos: %d
+                📤 Libros entregados: %d
+                💾 Libros persistidos: %d
+                ⚠️ Libros con error: %d
+                ⏱️ Duración: %,d ms (%.1f libros/s)
+                ===================================
+                """,
+                paginasProcesadas,
+                paginasFallidas.size(),
+                librosRecibidos,
+                librosEntregados,
+                librosPersistidos,
+                librosConError,
+                duracionMs,
+                getLibrosPorSegundo());
+    }
+}
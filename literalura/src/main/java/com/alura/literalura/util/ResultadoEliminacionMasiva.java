@@ -0,0 +1,68 @@
+package com.alura.literalura.util;
+
+public class ResultadoEliminacionMasiva {
+    private final CriteriosFiltro criterios;
+    private long librosEliminados;
+    private long autoresEliminados;
+    private int lotes;
+    private long duracionMs;
+
+    public ResultadoEliminacionMasiva(CriteriosFiltro criterios) {
+        this.criterios = criterios;
+    }
+
+    // Métodos de registro
+    public void registrarLote(int libros, int autores) {
+        librosEliminados += libros;
+        autoresEliminados += autores;
+        lotes++;
+    }
+
+    // Getters y Setters
+    public CriteriosFiltro getCriterios() {
+        return criterios;
+    }
+
+    public long getLibrosEliminados() {
+        return librosEliminados;
+    }
+
+    public long getAutoresEliminados() {
+        return autoresEliminados;
+    }
+
+    public int getLotes() {
+        return lotes;
+    }
+
+    public long getDuracionMs() {
+        return duracionMs;
+    }
+
+    public void setDuracionMs(long duracionMs) {
+        this.duracionMs = duracionMs;
+    }
+
+    public double getLibrosPorSegundo() {
+        return duracionMs > 0 ? librosEliminados * 1000.0 / duracionMs : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("""
+                🗑️ === ELIMINACIÓN MASIVA ===
+                🔍 %s
+                📦 Lotes: %d
+                📚 Libros eliminados: %,d
+                👤 Autores eliminados (sin libros): %,d
+                ⏱️ Tiempo: %,d ms (%.0f libros/s)
+                =============================
+                """,
+                criterios,
+                lotes,
+                librosEliminados,
+                autoresEliminados,
+                duracionMs,
+                getLibrosPorSegundo());
+    }
+}
@@ -0,0 +1,59 @@
+package com.alura.literalura.util;
+
+import java.nio.file.Path;
+
+public class ResultadoExportacion {
+    private final Path archivo;
+    private final FormatoExportacion formato;
+    private long filas;
+    private long bytes;
+    private long duracionMs;
+
+    public ResultadoExportacion(Path archivo, FormatoExportacion formato) {
+        this.archivo = archivo;
+        this.formato = formato;
+    }
+
+    public void registrarFila() {
+        filas++;
+    }
+
+    // Getters y Setters
+    public Path getArchivo() {
+        return archivo;
+    }
+
+    public FormatoExportacion getFormato() {
+        return formato;
+    }
+
+    public long getFilas() {
+        return filas;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+
+    public long getDuracionMs() {
+        return duracionMs;
+    }
+
+    public void setDuracionMs(long duracionMs) {
+        this.duracionMs = duracionMs;
+    }
+
+    public double getFilasPorSegundo() {
+        return duracionMs > 0 ? filas * 1000.0 / duracionMs : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("📤 Exportación %s: %,d libros → %s (%,d bytes) en %,d ms (%.0f libros/s)",
+                formato, filas, archivo, bytes, duracionMs, getFilasPorSegundo());
+    }
+}
@@ -0,0 +1,79 @@
+package com.alura.literalura.util;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+public class ResultadoIntegridad {
+    private final Map<ReglaIntegridad, Long> encontrados = new EnumMap<>(ReglaIntegridad.class);
+    private final Map<ReglaIntegridad, Long> reparados = new EnumMap<>(ReglaIntegridad.class);
+    private int lotes;
+    private long duracionMs;
+
+    // Métodos de registro
+    public void registrarEncontrados(ReglaIntegridad regla, long cantidad) {
+        encontrados.put(regla, cantidad);
+    }
+
+    public void registrarReparados(ReglaIntegridad regla, long cantidad) {
+        reparados.merge(regla, cantidad, Long::sum);
+        if (cantidad > 0) {
+            lotes++;
+        }
+    }
+
+    // Getters y Setters
+    public long getEncontrados(ReglaIntegridad regla) {
+        return encontrados.getOrDefault(regla, 0L);
+    }
+
+    public long getReparados(ReglaIntegridad regla) {
+        return reparados.getOrDefault(regla, 0L);
+    }
+
+    public long getTotalEncontrados() {
+        return encontrados.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public long getTotalReparados() {
+        return reparados.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public boolean isCatalogoIntegro() {
+        return getTotalEncontrados() == 0;
+    }
+
+    public int getLotes() {
+        return lotes;
+    }
+
+    public long getDuracionMs() {
+        return duracionMs;
+    }
+
+    public void setDuracionMs(long duracionMs) {
+        this.duracionMs = duracionMs;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder texto = new StringBuilder("🔍 === VALIDACIÓN DE INTEGRIDAD ===\n");
+        for (ReglaIntegridad regla : ReglaIntegridad.values()) {
+            long cantidad = getEncontrados(regla);
+            if (cantidad == 0) {
+                texto.append("✅ ").append(regla.getDescripcion()).append(": ninguno\n");
+                continue;
+            }
+            texto.append("⚠️ ").append(regla.getDescripcion()).append(": ").append(String.format("%,d", cantidad));
+            if (reparados.containsKey(regla)) {
+                texto.append(String.format(" → %,d %s", getReparados(regla), regla.getReparacion()));
+            }
+            texto.append('\n');
+        }
+        texto.append(String.format("⏱️ %,d ms", duracionMs));
+        if (lotes > 0) {
+            texto.append(String.format(" (%d lotes de reparación)", lotes));
+        }
+        texto.append('\n').append("═".repeat(50));
+        return texto.toString();
+    }
+}
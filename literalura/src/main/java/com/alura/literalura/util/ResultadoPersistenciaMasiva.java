@@ -0,0 +1,110 @@
+package com.alura.literalura.util;
+
+public class ResultadoPersistenciaMasiva {
+    private int librosInsertados;
+    private int librosExistentes;
+    private int librosDescartados;
+    private int librosFallidos;
+    private int autoresCreados;
+    private int lotes;
+    private long duracionMs;
+
+    // Constructor vacío
+    public ResultadoPersistenciaMasiva() {
+    }
+
+    // Métodos de registro
+    public void registrarLibrosInsertados(int cantidad) {
+        librosInsertados += cantidad;
+    }
+
+    public void registrarLibrosExistentes(int cantidad) {
+        librosExistentes += cantidad;
+    }
+
+    public void registrarLibroDescartado() {
+        librosDescartados++;
+    }
+
+    public void registrarLibrosFallidos(int cantidad) {
+        librosFallidos += cantidad;
+    }
+
+    public void registrarAutoresCreados(int cantidad) {
+        autoresCreados += cantidad;
+    }
+
+    public void registrarLote(long duracionMs) {
+        lotes++;
+        this.duracionMs += duracionMs;
+    }
+
+    /**
+     * Sumar el resultado de otro lote
+     */
+    public void acumular(ResultadoPersistenciaMasiva otro) {
+        librosInsertados += otro.librosInsertados;
+        librosExistentes += otro.librosExistentes;
+        librosDescartados += otro.librosDescartados;
+        librosFallidos += otro.librosFallidos;
+        autoresCreados += otro.autoresCreados;
+        lotes += otro.lotes;
+        duracionMs += otro.duracionMs;
+    }
+
+    // Getters
+    public int getLibrosInsertados() {
+        return librosInsertados;
+    }
+
+    public int getLibrosExistentes() {
+        return librosExistentes;
+    }
+
+    public int getLibrosDescartados() {
+        return librosDescartados;
+    }
+
+    public int getLibrosFallidos() {
+        return librosFallidos;
+    }
+
+    public int getAutoresCreados() {
+        return autoresCreados;
+    }
+
+    public int getLotes() {
+        return lotes;
+    }
+
+    public long getDuracionMs() {
+        return duracionMs;
+    }
+
+    public double getLibrosPorSegundo() {
+        return duracionMs > 0 ? librosInsertados * 1000.0 / duracionMs : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("""
+                💾 === PERSISTENCIA MASIVA ===
+                📦 Lotes: %d
+                ✅ Libros insertados: %d
+                🔁 Libros ya existentes (descargas actualizadas): %d
+                🚫 Libros descartados (inválidos): %d
+                ❌ Libros en lotes fallidos: %d
+                👤 Autores creados: %d
+                ⏱️ Tiempo en base de datos: %,d ms (%.1f libros/s)
+                =============================
+                """,
+                lotes,
+                librosInsertados,
+                librosExistentes,
+                librosDescartados,
+                librosFallidos,
+                autoresCreados,
+                duracionMs,
+                getLibrosPorSegundo());
+    }
+}
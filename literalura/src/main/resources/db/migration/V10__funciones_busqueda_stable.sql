@@ -0,0 +1,10 @@
+-- Las funciones de búsqueda de V4 se declararon IMMUTABLE, pero to_tsvector y
+-- websearch_to_tsquery con una configuración (y el cast de texto a regconfig)
+-- dependen de los catálogos de búsqueda, que pueden cambiar: son STABLE. Ningún
+-- índice ni columna generada usa estas funciones (la columna busqueda la
+-- mantienen los triggers), así que no hace falta que sean IMMUTABLE; en el FROM
+-- de la búsqueda una función STABLE también se evalúa una sola vez por consulta.
+-- V4 no se edita: Flyway rechazaría el cambio de checksum en bases ya migradas.
+ALTER FUNCTION literalura_config_idioma(VARCHAR) STABLE;
+ALTER FUNCTION literalura_tsquery(TEXT) STABLE;
+ALTER FUNCTION literalura_documento_libro(VARCHAR, VARCHAR, VARCHAR) STABLE;
@@ -0,0 +1,18 @@
+-- Esquema inicial de LiterAlura (equivalente al que generaba Hibernate con ddl-auto=update).
+-- IF NOT EXISTS: en bases existentes, creadas por Hibernate, no hace nada.
+
+CREATE TABLE IF NOT EXISTS autores (
+    id                BIGINT       PRIMARY KEY,
+    nombre            VARCHAR(500) NOT NULL UNIQUE,
+    ano_nacimiento    INTEGER,
+    ano_fallecimiento INTEGER
+);
+
+CREATE TABLE IF NOT EXISTS libros (
+    id               BIGINT        PRIMARY KEY,
+    titulo           VARCHAR(1000) NOT NULL,
+    autor_id         BIGINT        NOT NULL REFERENCES autores (id),
+    idioma           VARCHAR(10),
+    numero_descargas INTEGER,
+    url_descarga     VARCHAR(1000)
+);
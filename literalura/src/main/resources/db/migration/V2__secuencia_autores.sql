@@ -0,0 +1,7 @@
+-- Los IDs de autores pasan de IDENTITY a una secuencia con incremento 50, para
+-- que Hibernate reserve bloques de IDs y pueda agrupar los INSERT en lotes JDBC.
+
+CREATE SEQUENCE IF NOT EXISTS autores_seq INCREMENT BY 50;
+
+-- Continuar por encima de los IDs ya asignados por la columna IDENTITY
+SELECT setval('autores_seq', MAX(id) + 50) FROM autores HAVING MAX(id) IS NOT NULL;
@@ -0,0 +1,9 @@
+-- Índices de trigramas para las búsquedas por subcadena (ILIKE '%texto%') de
+-- títulos y nombres de autor; sin ellos cada búsqueda recorre la tabla completa.
+-- pg_trgm es una extensión "trusted" desde PostgreSQL 13: basta con ser dueño de la base.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_libros_titulo_trgm ON libros USING gin (titulo gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_autores_nombre_trgm ON autores USING gin (nombre gin_trgm_ops);
@@ -0,0 +1,84 @@
+-- Búsqueda de texto completo sobre título y autor. La columna busqueda (no
+-- mapeada en LibroEntity) la mantienen los triggers en cada escritura: el título
+-- se procesa con la configuración del idioma del libro y el autor con 'simple'.
+
+-- Configuración de búsqueda según el código de idioma de Gutendex
+CREATE OR REPLACE FUNCTION literalura_config_idioma(idioma VARCHAR) RETURNS regconfig
+    LANGUAGE sql IMMUTABLE AS $$
+    SELECT CASE idioma
+        WHEN 'en' THEN 'english'
+        WHEN 'es' THEN 'spanish'
+        WHEN 'fr' THEN 'french'
+        WHEN 'pt' THEN 'portuguese'
+        WHEN 'de' THEN 'german'
+        WHEN 'it' THEN 'italian'
+        WHEN 'nl' THEN 'dutch'
+        WHEN 'fi' THEN 'finnish'
+        WHEN 'sv' THEN 'swedish'
+        ELSE 'simple'
+    END::regconfig
+$$;
+
+-- Consulta del usuario: el idioma del texto no se conoce, así que se combinan (OR)
+-- las variantes de cada configuración. Es constante por consulta, y por eso el
+-- índice GIN sirve (una tsquery distinta por fila no podría usarlo)
+CREATE OR REPLACE FUNCTION literalura_tsquery(texto TEXT) RETURNS tsquery
+    LANGUAGE sql IMMUTABLE AS $$
+    SELECT websearch_to_tsquery('simple', texto)
+        || websearch_to_tsquery('english', texto)
+        || websearch_to_tsquery('spanish', texto)
+        || websearch_to_tsquery('french', texto)
+        || websearch_to_tsquery('portuguese', texto)
+        || websearch_to_tsquery('german', texto)
+        || websearch_to_tsquery('italian', texto)
+$$;
+
+-- Documento de un libro: título (peso A) con la configuración de su idioma y en
+-- forma simple (para coincidencias exactas), más el nombre del autor (peso B)
+CREATE OR REPLACE FUNCTION literalura_documento_libro(titulo VARCHAR, idioma VARCHAR, autor VARCHAR)
+    RETURNS tsvector LANGUAGE sql IMMUTABLE AS $$
+    SELECT setweight(to_tsvector(literalura_config_idioma(idioma), COALESCE(titulo, '')), 'A')
+        || setweight(to_tsvector('simple', COALESCE(titulo, '')), 'A')
+        || setweight(to_tsvector('simple', COALESCE(autor, '')), 'B')
+$$;
+
+ALTER TABLE libros ADD COLUMN IF NOT EXISTS busqueda tsvector;
+
+CREATE OR REPLACE FUNCTION literalura_actualizar_busqueda_libro() RETURNS trigger
+    LANGUAGE plpgsql AS $$
+BEGIN
+    NEW.busqueda := literalura_documento_libro(NEW.titulo, NEW.idioma,
+        (SELECT nombre FROM autores WHERE id = NEW.autor_id));
+    RETURN NEW;
+END
+$$;
+
+DROP TRIGGER IF EXISTS trg_libros_busqueda ON libros;
+CREATE TRIGGER trg_libros_busqueda
+    BEFORE INSERT OR UPDATE OF titulo, idioma, autor_id ON libros
+    FOR EACH ROW EXECUTE FUNCTION literalura_actualizar_busqueda_libro();
+
+-- Si cambia el nombre de un autor, se recalculan sus libros
+CREATE OR REPLACE FUNCTION literalura_actualizar_busqueda_autor() RETURNS trigger
+    LANGUAGE plpgsql AS $$
+BEGIN
+    UPDATE libros
+       SET busqueda = literalura_documento_libro(titulo, idioma, NEW.nombre)
+     WHERE autor_id = NEW.id;
+    RETURN NULL;
+END
+$$;
+
+DROP TRIGGER IF EXISTS trg_autores_busqueda ON autores;
+CREATE TRIGGER trg_autores_busqueda
+    AFTER UPDATE OF nombre ON autores
+    FOR EACH ROW WHEN (OLD.nombre IS DISTINCT FROM NEW.nombre)
+    EXECUTE FUNCTION literalura_actualizar_busqueda_autor();
+
+-- Libros ya registrados
+UPDATE libros l
+   SET busqueda = literalura_documento_libro(l.titulo, l.idioma, a.nombre)
+  FROM autores a
+ WHERE a.id = l.autor_id;
+
+CREATE INDEX IF NOT EXISTS idx_libros_busqueda ON libros USING gin (busqueda);
@@ -0,0 +1,126 @@
+-- Estadísticas por idioma mantenidas por triggers en la misma transacción que
+-- modifica libros: las pantallas de idiomas leen una fila por idioma en lugar de
+-- agrupar toda la tabla. Los libros sin idioma se acumulan bajo la clave ''.
+
+CREATE TABLE IF NOT EXISTS estadisticas_idioma (
+    idioma               VARCHAR(10) PRIMARY KEY,
+    cantidad_libros      BIGINT      NOT NULL,
+    libros_con_descargas BIGINT      NOT NULL,
+    suma_descargas       BIGINT      NOT NULL,
+    minimo_descargas     INTEGER,
+    maximo_descargas     INTEGER
+);
+
+-- Al salir un libro, el mínimo y el máximo de su idioma se recalculan con este
+-- índice (MIN y MAX leen una sola entrada cada uno)
+CREATE INDEX IF NOT EXISTS idx_libros_idioma_descargas ON libros (idioma, numero_descargas);
+
+-- Extremos de descargas de un idioma. Una rama por caso para que ambas usen el
+-- índice. VOLATILE (por defecto): ve los libros confirmados por otras
+-- transacciones hasta el momento en que se bloquea la fila de estadísticas
+CREATE OR REPLACE FUNCTION literalura_extremos_descargas(clave VARCHAR, OUT minimo INTEGER, OUT maximo INTEGER)
+    LANGUAGE plpgsql AS $$
+BEGIN
+    IF clave = '' THEN
+        SELECT MIN(numero_descargas), MAX(numero_descargas) INTO minimo, maximo
+          FROM libros WHERE idioma IS NULL;
+    ELSE
+        SELECT MIN(numero_descargas), MAX(numero_descargas) INTO minimo, maximo
+          FROM libros WHERE idioma = clave;
+    END IF;
+END
+$$;
+
+-- Trigger por sentencia con tablas de transición: un lote JDBC de 100 libros
+-- aplica una sola actualización por idioma, en orden de idioma
+CREATE OR REPLACE FUNCTION literalura_actualizar_estadisticas_idioma() RETURNS trigger
+    LANGUAGE plpgsql AS $$
+BEGIN
+    -- Actualizaciones que no tocan idioma ni descargas (p. ej. la columna busqueda).
+    -- IF anidado: viejas solo existe en los triggers de UPDATE y DELETE
+    IF TG_OP = 'UPDATE' THEN
+        IF NOT EXISTS (SELECT 1 FROM viejas v JOIN nuevas n ON n.id = v.id
+                        WHERE v.idioma IS DISTINCT FROM n.idioma
+                           OR v.numero_descargas IS DISTINCT FROM n.numero_descargas) THEN
+            RETURN NULL;
+        END IF;
+    END IF;
+
+    -- Filas que salen: se restan y los extremos se recalculan
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        UPDATE estadisticas_idioma e
+           SET cantidad_libros      = e.cantidad_libros - d.cantidad_libros,
+               libros_con_descargas = e.libros_con_descargas - d.libros_con_descargas,
+               suma_descargas       = e.suma_descargas - d.suma_descargas,
+               minimo_descargas     = x.minimo,
+               maximo_descargas     = x.maximo
+          FROM (SELECT COALESCE(idioma, '') AS idioma, COUNT(*) AS cantidad_libros,
+                       COUNT(numero_descargas) AS libros_con_descargas,
+                       COALESCE(SUM(numero_descargas), 0) AS suma_descargas
+                  FROM viejas GROUP BY 1) d
+               CROSS JOIN LATERAL literalura_extremos_descargas(d.idioma) x
+         WHERE e.idioma = d.idioma;
+    END IF;
+
+    -- Filas que entran: se suman y los extremos se amplían
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO estadisticas_idioma AS e
+               (idioma, cantidad_libros, libros_con_descargas, suma_descargas, minimo_descargas, maximo_descargas)
+        SELECT COALESCE(idioma, ''), COUNT(*), COUNT(numero_descargas),
+               COALESCE(SUM(numero_descargas), 0), MIN(numero_descargas), MAX(numero_descargas)
+          FROM nuevas GROUP BY 1 ORDER BY 1
+        ON CONFLICT (idioma) DO UPDATE
+           SET cantidad_libros      = e.cantidad_libros + EXCLUDED.cantidad_libros,
+               libros_con_descargas = e.libros_con_descargas + EXCLUDED.libros_con_descargas,
+               suma_descargas       = e.suma_descargas + EXCLUDED.suma_descargas,
+               minimo_descargas     = LEAST(e.minimo_descargas, EXCLUDED.minimo_descargas),
+               maximo_descargas     = GREATEST(e.maximo_descargas, EXCLUDED.maximo_descargas);
+    END IF;
+
+    -- Idiomas que se quedaron sin libros
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        DELETE FROM estadisticas_idioma e
+         USING (SELECT DISTINCT COALESCE(idioma, '') AS idioma FROM viejas) d
+         WHERE e.idioma = d.idioma AND e.cantidad_libros = 0;
+    END IF;
+
+    RETURN NULL;
+END
+$$;
+
+-- Una tabla de transición solo se admite en triggers de un único evento
+DROP TRIGGER IF EXISTS trg_libros_estadisticas_insert ON libros;
+CREATE TRIGGER trg_libros_estadisticas_insert
+    AFTER INSERT ON libros REFERENCING NEW TABLE AS nuevas
+    FOR EACH STATEMENT EXECUTE FUNCTION literalura_actualizar_estadisticas_idioma();
+
+DROP TRIGGER IF EXISTS trg_libros_estadisticas_update ON libros;
+CREATE TRIGGER trg_libros_estadisticas_update
+    AFTER UPDATE ON libros REFERENCING OLD TABLE AS viejas NEW TABLE AS nuevas
+    FOR EACH STATEMENT EXECUTE FUNCTION literalura_actualizar_estadisticas_idioma();
+
+DROP TRIGGER IF EXISTS trg_libros_estadisticas_delete ON libros;
+CREATE TRIGGER trg_libros_estadisticas_delete
+    AFTER DELETE ON libros REFERENCING OLD TABLE AS viejas
+    FOR EACH STATEMENT EXECUTE FUNCTION literalura_actualizar_estadisticas_idioma();
+
+CREATE OR REPLACE FUNCTION literalura_vaciar_estadisticas_idioma() RETURNS trigger
+    LANGUAGE plpgsql AS $$
+BEGIN
+    DELETE FROM estadisticas_idioma;
+    RETURN NULL;
+END
+$$;
+
+DROP TRIGGER IF EXISTS trg_libros_estadisticas_truncate ON libros;
+CREATE TRIGGER trg_libros_estadisticas_truncate
+    AFTER TRUNCATE ON libros
+    FOR EACH STATEMENT EXECUTE FUNCTION literalura_vaciar_estadisticas_idioma();
+
+-- Libros ya registrados
+DELETE FROM estadisticas_idioma;
+INSERT INTO estadisticas_idioma
+       (idioma, cantidad_libros, libros_con_descargas, suma_descargas, minimo_descargas, maximo_descargas)
+SELECT COALESCE(idioma, ''), COUNT(*), COUNT(numero_descargas),
+       COALESCE(SUM(numero_descargas), 0), MIN(numero_descargas), MAX(numero_descargas)
+  FROM libros GROUP BY 1;
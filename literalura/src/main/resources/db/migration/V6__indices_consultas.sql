@@ -0,0 +1,21 @@
+-- Índices para las consultas frecuentes de LibroRepository y AutorRepository.
+-- PlanesConsultaTest falla si alguna de ellas vuelve a recorrer la tabla entera.
+
+-- Libros de un idioma, más descargados primero (listado por idioma paginado por
+-- clave): la expresión debe coincidir con el ORDER BY de la consulta
+CREATE INDEX IF NOT EXISTS idx_libros_idioma_descargas_id
+    ON libros (idioma, (COALESCE(numero_descargas, 0)) DESC, id DESC);
+
+-- Más descargados de todo el catálogo
+CREATE INDEX IF NOT EXISTS idx_libros_descargas_id
+    ON libros ((COALESCE(numero_descargas, 0)) DESC, id DESC);
+
+-- Listado por título paginado por clave y búsqueda por título exacto
+CREATE INDEX IF NOT EXISTS idx_libros_titulo_id ON libros (titulo, id);
+
+-- Libros de un autor: joins y conteos por autor, y la verificación de la clave
+-- foránea al eliminar autores
+CREATE INDEX IF NOT EXISTS idx_libros_autor ON libros (autor_id);
+
+-- Autores vivos en un año (rango sobre nacimiento, filtro sobre fallecimiento)
+CREATE INDEX IF NOT EXISTS idx_autores_anos ON autores (ano_nacimiento, ano_fallecimiento);
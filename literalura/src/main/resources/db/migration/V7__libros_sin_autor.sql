@@ -0,0 +1,3 @@
+-- Gutendex publica algunos libros sin autor: se guardan con autor_id nulo (la
+-- clave foránea sigue valiendo para los que sí tienen uno)
+ALTER TABLE libros ALTER COLUMN autor_id DROP NOT NULL;
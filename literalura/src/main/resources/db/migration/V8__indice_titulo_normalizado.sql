@@ -0,0 +1,5 @@
+-- Búsqueda de un libro por título exacto sin distinguir mayúsculas ni espacios
+-- (antes de consultar Gutendex): la expresión debe coincidir con
+-- LibroRepository.TITULO_NORMALIZADO
+CREATE INDEX IF NOT EXISTS idx_libros_titulo_normalizado
+    ON libros ((lower(regexp_replace(btrim(titulo), '\s+', ' ', 'g'))));
@@ -0,0 +1,4 @@
+-- Libros con más de N descargas (ConsultaLibrosService.obtenerLibrosPopulares):
+-- la consulta derivada filtra y ordena por la columna tal cual, así que no puede
+-- usar los índices sobre COALESCE(numero_descargas, 0) de V6
+CREATE INDEX IF NOT EXISTS idx_libros_numero_descargas ON libros (numero_descargas DESC);
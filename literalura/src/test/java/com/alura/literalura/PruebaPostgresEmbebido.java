@@ -0,0 +1,53 @@
+package com.alura.literalura;
+
+import com.alura.literalura.principal.Principal;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+
+/**
+ * Base de las pruebas de JPA sobre PostgreSQL embebido con el esquema de Flyway
+ * (triggers incluidos). Cada clase levanta su propia base y su propio contexto,
+ * que se descarta al terminar. Las pruebas no corren dentro de una transacción:
+ * la abren los servicios y repositorios, como en la aplicación.
+ */
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DirtiesContext
+public abstract class PruebaPostgresEmbebido {
+
+    private static EmbeddedPostgres postgres;
+
+    // LiteraluraApplication lo inyecta; el menú no debe ejecutarse en la prueba
+    @MockitoBean
+    private Principal principal;
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void configurarBaseDatos(DynamicPropertyRegistry registro) throws IOException {
+        EmbeddedPostgres base = EmbeddedPostgres.builder().start();
+        postgres = base;
+        registro.add("spring.datasource.url", () -> base.getJdbcUrl("postgres", "postgres"));
+        registro.add("spring.datasource.username", () -> "postgres");
+        registro.add("spring.datasource.password", () -> "");
+    }
+
+    @AfterAll
+    static void detenerBaseDatos() throws IOException {
+        postgres.close();
+    }
+}
@@ -0,0 +1,99 @@
+package com.alura.literalura.config;
+
+import com.alura.literalura.PruebaPostgresEmbebido;
+import com.alura.literalura.entity.AutorEntity;
+import com.alura.literalura.entity.LibroEntity;
+import com.alura.literalura.repository.LibroRepository;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Dos PostgreSQL embebidos con el mismo esquema y datos distintos: lo que se
+ * lee indica a cuál fue cada transacción. La principal es la de la clase base.
+ */
+@Import(OrigenesDatosConfig.class)
+class OrigenesDatosConfigTest extends PruebaPostgresEmbebido {
+
+    private static EmbeddedPostgres replica;
+
+    @Autowired
+    private LibroRepository libroRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @DynamicPropertySource
+    static void configurarReplica(DynamicPropertyRegistry registro) throws IOException {
+        replica = EmbeddedPostgres.builder().start();
+
+        // La principal la migra Flyway al arrancar; la réplica, aquí
+        Flyway.configure().dataSource(replica.getPostgresDatabase()).load().migrate();
+        JdbcTemplate enReplica = new JdbcTemplate(replica.getPostgresDatabase());
+        enReplica.update("INSERT INTO autores (id, nombre) VALUES (1, 'Autor de la réplica')");
+        enReplica.update("INSERT INTO libros (id, titulo, autor_id, idioma) VALUES (1, 'Solo en la réplica', 1, 'es')");
+
+        registro.add(OrigenesDatosConfig.PROPIEDAD_URL_REPLICA, () -> replica.getJdbcUrl("postgres", "postgres"));
+    }
+
+    @AfterAll
+    static void detenerReplica() throws IOException {
+        replica.close();
+    }
+
+    @Test
+    void lecturasDeSoloLecturaVanALaReplica() {
+        // Los métodos de consulta de los repositorios son de solo lectura
+        assertThat(libroRepository.findByTitulo("Solo en la réplica")).isPresent();
+        assertThat(libroRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void escriturasVanALaPrincipal() {
+        LibroEntity libro = new LibroEntity(2L, "Solo en la principal", autorEnPrincipal(), "en", 10);
+        assertThat(libroRepository.upsert(libro)).isTrue();
+
+        // Una transacción de lectura y escritura lee la principal
+        TransactionTemplate escritura = new TransactionTemplate(transactionManager);
+        Optional<LibroEntity> leido = escritura.execute(estado -> libroRepository.findByTitulo("Solo en la principal"));
+        assertThat(leido).isPresent();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM libros WHERE id = 2", Long.class)).isEqualTo(1);
+
+        // La réplica no la recibe (aquí no hay replicación)
+        assertThat(libroRepository.findByTitulo("Solo en la principal")).isEmpty();
+    }
+
+    @Test
+    void soloLecturaNoEscribeCambios() {
+        TransactionTemplate lectura = new TransactionTemplate(transactionManager);
+        lectura.setReadOnly(true);
+
+        // Sin flush ni detección de cambios: la conexión de solo lectura rechazaría el UPDATE
+        lectura.executeWithoutResult(estado ->
+                libroRepository.findByTitulo("Solo en la réplica").orElseThrow().setTitulo("Modificado"));
+
+        assertThat(new JdbcTemplate(replica.getPostgresDatabase())
+                .queryForObject("SELECT titulo FROM libros WHERE id = 1", String.class))
+                .isEqualTo("Solo en la réplica");
+    }
+
+    private AutorEntity autorEnPrincipal() {
+        jdbcTemplate.update("INSERT INTO autores (id, nombre) VALUES (2, 'Autor de la principal') ON CONFLICT DO NOTHING");
+        AutorEntity autor = new AutorEntity("Autor de la principal", null, null);
+        autor.setId(2L);
+        return autor;
+    }
+}
@@ -0,0 +1,190 @@
+package com.alura.literalura.gutendex;
+
+import com.alura.literalura.config.ApiConfig;
+import com.alura.literalura.config.EjecutorIngesta;
+import com.alura.literalura.model.Libro;
+import com.alura.literalura.service.CacheHttpDisco;
+import com.alura.literalura.service.CacheHttpDisco.EntradaCache;
+import com.alura.literalura.service.ConvierteDatos;
+import com.alura.literalura.service.CosechadorCatalogoService;
+import com.alura.literalura.service.GutendxServiceMejorado;
+import com.alura.literalura.service.HttpClientService;
+import com.alura.literalura.service.LimitadorTasa;
+import com.alura.literalura.util.ResultadoCosecha;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ingesta contra el Gutendex simulado: sin red ni base de datos, los servicios
+ * se arman a mano con una caché HTTP temporal
+ */
+class IngestaGutendexSimuladoTest {
+
+    @TempDir
+    Path directorioTemporal;
+
+    private ServidorGutendexSimulado servidor;
+    private HttpClientService httpClientService;
+    private CosechadorCatalogoService cosechador;
+    private GutendxServiceMejorado gutendexService;
+
+    @BeforeEach
+    void configurarServicios() {
+        EjecutorIngesta ejecutorIngesta = new EjecutorIngesta(false);
+        ConvierteDatos conversor = new ConvierteDatos();
+
+        httpClientService = new HttpClientService(ejecutorIngesta);
+        ReflectionTestUtils.setField(httpClientService, "cacheHttp",
+                new CacheHttpDisco(directorioTemporal.resolve("cache-http")));
+        // Tasa alta: las pruebas no deben esperar al limitador, solo a los Retry-After
+        ReflectionTestUtils.setField(httpClientService, "limitadorTasa", new LimitadorTasa(1000, 500, 1000));
+
+        cosechador = new CosechadorCatalogoService();
+        ReflectionTestUtils.setField(cosechador, "httpClientService", httpClientService);
+        ReflectionTestUtils.setField(cosechador, "conversor", conversor);
+        ReflectionTestUtils.setField(cosechador, "ejecutorIngesta", ejecutorIngesta);
+
+        gutendexService = new GutendxServiceMejorado();
+        ReflectionTestUtils.setField(gutendexService, "httpClientService", httpClientService);
+        ReflectionTestUtils.setField(gutendexService, "conversor", conversor);
+    }
+
+    @AfterEach
+    void detenerServidor() {
+        System.clearProperty(ApiConfig.PROPIEDAD_BASE_URL);
+        if (servidor != null) {
+            servidor.close();
+        }
+    }
+
+    @Test
+    void cosechaUnCatalogoSinteticoCompleto() throws Exception {
+        servidor = new ServidorGutendexSimulado().conCatalogoSintetico(1000).conCompresion().iniciar();
+        Set<Long> recibidos = ConcurrentHashMap.newKeySet();
+
+        ResultadoCosecha resultado = cosechador.cosechar(servidor.getBaseUrl(), 4, libro -> recibidos.add(libro.getId()));
+
+        assertThat(resultado.getPaginasProcesadas()).isEqualTo(32);
+        assertThat(resultado.getPaginasFallidas()).isEmpty();
+        assertThat(recibidos).hasSize(1000);
+    }
+
+    @Test
+    void usaLaUrlBaseConfigurada() throws Exception {
+        servidor = new ServidorGutendexSimulado().conCatalogoSintetico(500).iniciar();
+        System.setProperty(ApiConfig.PROPIEDAD_BASE_URL, servidor.getBaseUrl());
+
+        List<Long> ids = LongStream.rangeClosed(1, 100).boxed().collect(Collectors.toList());
+        ids.add(9_999L);
+        Map<Long, Libro> libros = gutendexService.obtenerLibrosPorIds(ids);
+
+        assertThat(libros).hasSize(100).containsKeys(1L, 50L, 100L);
+        assertThat(servidor.getSolicitudes()).isEqualTo(4);
+    }
+
+    @Test
+    void reintentaLasRespuestas429() throws Exception {
+        servidor = new ServidorGutendexSimulado().conCatalogoSintetico(320).con429Cada(3, 0).iniciar();
+        Set<Long> recibidos = ConcurrentHashMap.newKeySet();
+
+        ResultadoCosecha resultado = cosechador.cosechar(servidor.getBaseUrl(), 4, libro -> recibidos.add(libro.getId()));
+
+        assertThat(servidor.getRespuestas429()).isPositive();
+        assertThat(resultado.getPaginasFallidas()).isEmpty();
+        assertThat(recibidos).hasSize(320);
+    }
+
+    @Test
+    void registraLasPaginasTruncadasComoFallidas() throws Exception {
+        servidor = new ServidorGutendexSimulado().conCatalogoSintetico(320).conTruncadoCada(4).iniciar();
+
+        ResultadoCosecha resultado = cosechador.cosechar(servidor.getBaseUrl(), 1, libro -> {
+        });
+
+        assertThat(servidor.getRespuestasTruncadas()).isEqualTo(2);
+        assertThat(resultado.getPaginasFallidas()).hasSize(2);
+        assertThat(resultado.getLibrosRecibidos()).isEqualTo(320 - 2 * 32);
+    }
+
+    @Test
+    void un304DeUnaEntradaPodadaSePideDeNuevoSinValidadores() throws Exception {
+        servidor = new ServidorGutendexSimulado().conCatalogoSintetico(100).iniciar();
+        // La entrada se poda justo después de leerla, antes de que llegue el 304
+        ReflectionTestUtils.setField(httpClientService, "cacheHttp",
+                new CacheHttpDisco(directorioTemporal.resolve("cache-podada")) {
+                    @Override
+                    public Optional<EntradaCache> leer(String url) {
+                        Optional<EntradaCache> entrada = super.leer(url);
+                        entrada.ifPresent(e -> e.archivoCuerpo().toFile().delete());
+                        return entrada;
+                    }
+                });
+        String url = servidor.getBaseUrl();
+
+        String original = httpClientService.realizarSolicitud(url);
+        assertThat(httpClientService.realizarSolicitud(url)).isEqualTo(original);
+        assertThat(httpClientService.realizarSolicitudAsincrona(url).join()).isEqualTo(original);
+
+        assertThat(servidor.getRespuestasNoModificadas()).isEqualTo(2);
+        assertThat(servidor.getRespuestasExitosas()).isEqualTo(3);
+    }
+
+    @Test
+    void enHilosVirtualesUnaPaginaTruncadaNoEntregaLibros() throws Exception {
+        servidor = new ServidorGutendexSimulado().conCatalogoSintetico(320).conTruncadoCada(4).iniciar();
+        ResultadoCosecha resultado = new ResultadoCosecha();
+        Set<Long> recibidos = ConcurrentHashMap.newKeySet();
+
+        // Cualquier ejecutor sirve: lo que se prueba es la entrega por página
+        ExecutorService ejecutor = Executors.newFixedThreadPool(4);
+        try {
+            cosechador.cosecharEnHilosVirtuales(ejecutor, servidor.getBaseUrl() + "?page=1", 1, 10, 4,
+                    libro -> recibidos.add(libro.getId()), resultado);
+        } finally {
+            ejecutor.shutdown();
+        }
+
+        assertThat(resultado.getPaginasFallidas()).hasSize(2);
+        assertThat(resultado.getPaginasProcesadas()).isEqualTo(8);
+        assertThat(recibidos).hasSize(320 - 2 * 32);
+    }
+
+    @Test
+    void reproduceLoGrabadoSinVolverAlOrigen() throws Exception {
+        Path grabaciones = directorioTemporal.resolve("grabaciones");
+
+        try (ServidorGutendexSimulado origen = new ServidorGutendexSimulado().conCatalogoSintetico(100).iniciar()) {
+            try (ServidorGutendexSimulado grabador = new ServidorGutendexSimulado()
+                    .grabandoDesde(origen.getBaseUrl(), grabaciones)
+                    .iniciar()) {
+                ResultadoCosecha grabada = cosechador.cosechar(grabador.getBaseUrl(), 2, libro -> {
+                });
+                assertThat(grabada.getLibrosRecibidos()).isEqualTo(100);
+                assertThat(grabador.getSolicitudesAlOrigen()).isEqualTo(4);
+            }
+        }
+
+        servidor = new ServidorGutendexSimulado().conGrabaciones(grabaciones).iniciar();
+        ResultadoCosecha reproducida = cosechador.cosechar(servidor.getBaseUrl(), 2, libro -> {
+        });
+
+        assertThat(reproducida.getLibrosRecibidos()).isEqualTo(100);
+        assertThat(reproducida.getPaginasFallidas()).isEmpty();
+    }
+}
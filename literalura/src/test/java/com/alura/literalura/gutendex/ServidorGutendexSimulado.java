@@ -0,0 +1,509 @@
+package com.alura.literalura.gutendex;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Servidor local que imita la API de Gutendex para pruebas y mediciones
+ * reproducibles, sin depender de https://gutendex.com.
+ *
+ * Puede responder con un catálogo sintético del tamaño que se quiera, reproducir
+ * páginas grabadas en un directorio (y grabarlas desde el origen real cuando
+ * faltan), e inyectar latencia, respuestas 429 y cuerpos truncados. Los fallos
+ * se inyectan por conteo (cada N solicitudes), no al azar, para que cada
+ * ejecución sea idéntica.
+ *
+ * Para apuntar la aplicación a él basta con la propiedad del sistema
+ * literalura.api.base-url (ver ApiConfig.obtenerBaseUrl).
+ */
+public class ServidorGutendexSimulado implements AutoCloseable {
+
+    public static final String URL_GUTENDEX = "https://gutendex.com/books/";
+    private static final String RUTA = "/books/";
+    private static final int TAMANO_PAGINA = 32;
+    private static final String[] IDIOMAS = {"en", "es", "fr", "de", "pt", "it"};
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private HttpServer servidor;
+    private ExecutorService ejecutor;
+    private String baseUrl;
+
+    // Fuentes de respuestas
+    private int librosSinteticos;
+    private Path directorioGrabaciones;
+    private String urlOrigen;
+    private HttpClient clienteOrigen;
+
+    // Fallos inyectados
+    private long latenciaMs;
+    private int cada429;
+    private int retryAfterSegundos = 1;
+    private int cadaTruncada;
+    private boolean comprimir;
+
+    // Contadores
+    private final AtomicLong solicitudes = new AtomicLong();
+    private final AtomicLong respuestasExitosas = new AtomicLong();
+    private final AtomicLong respuestas429 = new AtomicLong();
+    private final AtomicLong respuestasTruncadas = new AtomicLong();
+    private final AtomicLong respuestasNoModificadas = new AtomicLong();
+    private final AtomicLong solicitudesAlOrigen = new AtomicLong();
+
+    /**
+     * Responder con un catálogo generado de libros 1..totalLibros
+     */
+    public ServidorGutendexSimulado conCatalogoSintetico(int totalLibros) {
+        this.librosSinteticos = totalLibros;
+        return this;
+    }
+
+    /**
+     * Reproducir las respuestas grabadas en el directorio
+     */
+    public ServidorGutendexSimulado conGrabaciones(Path directorio) {
+        this.directorioGrabaciones = directorio;
+        return this;
+    }
+
+    /**
+     * Modo grabación: las respuestas que no estén en el directorio se piden al
+     * origen (normalmente URL_GUTENDEX) y se guardan antes de servirlas
+     */
+    public ServidorGutendexSimulado grabandoDesde(String urlOrigen, Path directorio) {
+        this.urlOrigen = urlOrigen.endsWith("/") ? urlOrigen : urlOrigen + "/";
+        this.directorioGrabaciones = directorio;
+        this.clienteOrigen = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        return this;
+    }
+
+    /**
+     * Demorar cada respuesta la cantidad indicada de milisegundos
+     */
+    public ServidorGutendexSimulado conLatencia(long milisegundos) {
+        this.latenciaMs = milisegundos;
+        return this;
+    }
+
+    /**
+     * Responder 429 (con Retry-After) a una de cada n solicitudes
+     */
+    public ServidorGutendexSimulado con429Cada(int n, int retryAfterSegundos) {
+        this.cada429 = n;
+        this.retryAfterSegundos = retryAfterSegundos;
+        return this;
+    }
+
+    /**
+     * Cortar el cuerpo a la mitad en una de cada n respuestas exitosas
+     */
+    public ServidorGutendexSimulado conTruncadoCada(int n) {
+        this.cadaTruncada = n;
+        return this;
+    }
+
+    /**
+     * Comprimir con gzip cuando el cliente lo acepte
+     */
+    public ServidorGutendexSimulado conCompresion() {
+        this.comprimir = true;
+        return this;
+    }
+
+    public ServidorGutendexSimulado iniciar() throws IOException {
+        return iniciar(0);
+    }
+
+    /**
+     * Iniciar en el puerto indicado (0 = cualquiera libre) sobre localhost
+     */
+    public ServidorGutendexSimulado iniciar(int puerto) throws IOException {
+        if (librosSinteticos <= 0 && directorioGrabaciones == null) {
+            throw new IllegalStateException("Configure un catálogo sintético o un directorio de grabaciones");
+        }
+
+        servidor = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), puerto), 0);
+        ejecutor = Executors.newCachedThreadPool();
+        servidor.setExecutor(ejecutor);
+        servidor.createContext(RUTA, this::atender);
+        servidor.start();
+
+        baseUrl = "http://localhost:" + servidor.getAddress().getPort() + RUTA;
+        return this;
+    }
+
+    /**
+     * URL base a usar en lugar de https://gutendex.com/books/
+     */
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    @Override
+    public void close() {
+        if (servidor != null) {
+            servidor.stop(0);
+            ejecutor.shutdownNow();
+        }
+    }
+
+    private void atender(HttpExchange intercambio) {
+        try {
+            long numero = solicitudes.incrementAndGet();
+
+            if (latenciaMs > 0) {
+                Thread.sleep(latenciaMs);
+            }
+
+            if (cada429 > 0 && numero % cada429 == 0) {
+                respuestas429.incrementAndGet();
+                intercambio.getResponseHeaders().set("Retry-After", String.valueOf(retryAfterSegundos));
+                enviar(intercambio, 429, "{\"detail\":\"Request was throttled.\"}".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+
+            byte[] cuerpo = resolver(intercambio.getRequestURI());
+            if (cuerpo == null) {
+                enviar(intercambio, 404, "{\"detail\":\"Not found.\"}".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+
+            String etag = "\"" + Integer.toHexString(Arrays.hashCode(cuerpo)) + "\"";
+            if (etag.equals(intercambio.getRequestHeaders().getFirst("If-None-Match"))) {
+                respuestasNoModificadas.incrementAndGet();
+                intercambio.getResponseHeaders().set("ETag", etag);
+                intercambio.sendResponseHeaders(304, -1);
+                return;
+            }
+
+            String aceptadas = intercambio.getRequestHeaders().getFirst("Accept-Encoding");
+            if (comprimir && aceptadas != null && aceptadas.contains("gzip")) {
+                cuerpo = comprimirGzip(cuerpo);
+                intercambio.getResponseHeaders().set("Content-Encoding", "gzip");
+            }
+
+            long exitosa = respuestasExitosas.incrementAndGet();
+
+            // Sin ETag: un cuerpo truncado no debe quedar guardado como válido en la caché del cliente
+            if (cadaTruncada > 0 && exitosa % cadaTruncada == 0) {
+                respuestasTruncadas.incrementAndGet();
+                enviarTruncado(intercambio, cuerpo);
+                return;
+            }
+
+            intercambio.getResponseHeaders().set("ETag", etag);
+            enviar(intercambio, 200, cuerpo);
+
+        } catch (Exception e) {
+            System.err.println("❌ Servidor simulado: " + e.getMessage());
+            try {
+                enviar(intercambio, 500, "{\"detail\":\"Error interno.\"}".getBytes(StandardCharsets.UTF_8));
+            } catch (IOException ignorada) {
+                // La conexión ya no es utilizable
+            }
+        } finally {
+            intercambio.close();
+        }
+    }
+
+    /**
+     * Cuerpo para la ruta pedida: grabación, origen (modo grabación) o catálogo sintético
+     */
+    private byte[] resolver(URI uri) throws IOException, InterruptedException {
+        String relativa = uri.getRawPath().substring(RUTA.length())
+                + (uri.getRawQuery() != null ? "?" + uri.getRawQuery() : "");
+
+        if (directorioGrabaciones != null) {
+            Path archivo = directorioGrabaciones.resolve(nombreGrabacion(relativa));
+
+            if (!Files.exists(archivo) && urlOrigen != null) {
+                grabar(relativa, archivo);
+            }
+            if (Files.exists(archivo)) {
+                // Las grabaciones guardan los enlaces de Gutendex: se reescriben hacia este servidor
+                return Files.readString(archivo, StandardCharsets.UTF_8)
+                        .replace(URL_GUTENDEX, baseUrl)
+                        .getBytes(StandardCharsets.UTF_8);
+            }
+        }
+
+        if (librosSinteticos > 0) {
+            return resolverSintetico(uri);
+        }
+        return null;
+    }
+
+    /**
+     * Pedir una ruta al origen y guardarla con los enlaces normalizados a Gutendex
+     */
+    private void grabar(String relativa, Path archivo) throws IOException, InterruptedException {
+        solicitudesAlOrigen.incrementAndGet();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(urlOrigen + relativa))
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        HttpResponse<String> response = clienteOrigen.send(request, HttpResponse.BodyHandlers.ofString());
+
+        if (response.statusCode() != 200) {
+            System.err.println("⚠️ El origen respondió " + response.statusCode() + " para " + relativa);
+            return;
+        }
+
+        Files.createDirectories(archivo.getParent());
+        Files.writeString(archivo, response.body().replace(urlOrigen, URL_GUTENDEX), StandardCharsets.UTF_8);
+        System.out.println("🎙️ Grabada: " + relativa);
+    }
+
+    /**
+     * Nombre de archivo legible a partir de la ruta y la consulta
+     */
+    static String nombreGrabacion(String relativa) {
+        String nombre = relativa.isEmpty() ? "indice" : relativa.replaceAll("[^A-Za-z0-9=._-]", "_");
+        return nombre + ".json";
+    }
+
+    // ---------------------------------------------------------------------
+    // Catálogo sintético
+    // ---------------------------------------------------------------------
+
+    /**
+     * Implementa /books/{id}/ y /books/ con page, ids, search y languages.
+     * Los libros se ordenan por ID ascendente.
+     */
+    private byte[] resolverSintetico(URI uri) throws IOException {
+        String resto = uri.getRawPath().substring(RUTA.length()).replace("/", "");
+        if (!resto.isEmpty()) {
+            long id = Long.parseLong(resto);
+            return id >= 1 && id <= librosSinteticos ? mapper.writeValueAsBytes(crearLibro(id)) : null;
+        }
+
+        Map<String, String> parametros = leerParametros(uri.getRawQuery());
+        LongStream ids = LongStream.rangeClosed(1, librosSinteticos);
+
+        if (parametros.containsKey("ids")) {
+            Set<Long> pedidos = Arrays.stream(parametros.get("ids").split(","))
+                    .filter(valor -> !valor.isBlank())
+                    .map(valor -> Long.parseLong(valor.trim()))
+                    .collect(Collectors.toSet());
+            ids = ids.filter(pedidos::contains);
+        }
+        if (parametros.containsKey("languages")) {
+            List<String> idiomas = Arrays.asList(parametros.get("languages").split(","));
+            ids = ids.filter(id -> idiomas.contains(idioma(id)));
+        }
+        if (parametros.containsKey("search")) {
+            String[] palabras = parametros.get("search").toLowerCase().split("\\s+");
+            ids = ids.filter(id -> {
+                String texto = (titulo(id) + " " + nombreAutor(id)).toLowerCase();
+                return Arrays.stream(palabras).allMatch(texto::contains);
+            });
+        }
+
+        long[] coincidencias = ids.toArray();
+        int pagina = Integer.parseInt(parametros.getOrDefault("page", "1"));
+        int desde = (pagina - 1) * TAMANO_PAGINA;
+
+        if (pagina < 1 || (desde >= coincidencias.length && pagina > 1)) {
+            return null;
+        }
+
+        int hasta = Math.min(desde + TAMANO_PAGINA, coincidencias.length);
+        Map<String, Object> respuesta = new LinkedHashMap<>();
+        respuesta.put("count", coincidencias.length);
+        respuesta.put("next", hasta < coincidencias.length ? enlacePagina(parametros, pagina + 1) : null);
+        respuesta.put("previous", pagina > 1 ? enlacePagina(parametros, pagina - 1) : null);
+        respuesta.put("results", Arrays.stream(coincidencias, desde, hasta).mapToObj(this::crearLibro).toList());
+
+        return mapper.writeValueAsBytes(respuesta);
+    }
+
+    private Map<String, Object> crearLibro(long id) {
+        int nacimiento = 1500 + (int) (id % 400);
+
+        Map<String, Object> autor = new LinkedHashMap<>();
+        autor.put("name", nombreAutor(id));
+        autor.put("birth_year", nacimiento);
+        autor.put("death_year", id % 10 == 0 ? null : nacimiento + 40 + (int) (id % 50));
+
+        Map<String, Object> libro = new LinkedHashMap<>();
+        libro.put("id", id);
+        libro.put("title", titulo(id));
+        libro.put("authors", List.of(autor));
+        libro.put("subjects", List.of("Ficción sintética"));
+        libro.put("languages", List.of(idioma(id)));
+        libro.put("formats", Map.of("text/plain; charset=utf-8", "https://example.invalid/libros/" + id + ".txt"));
+        libro.put("download_count", (int) ((id * 7919) % 100_000));
+        return libro;
+    }
+
+    private String titulo(long id) {
+        return "Libro sintético " + id;
+    }
+
+    private String nombreAutor(long id) {
+        // Unos cinco libros por autor, para ejercitar la deduplicación de autores
+        long totalAutores = Math.max(1, librosSinteticos / 5);
+        return "Autor, Sintético " + (id % totalAutores + 1);
+    }
+
+    private String idioma(long id) {
+        return IDIOMAS[(int) (id % IDIOMAS.length)];
+    }
+
+    private String enlacePagina(Map<String, String> parametros, int pagina) {
+        Map<String, String> copia = new LinkedHashMap<>(parametros);
+        copia.remove("page");
+        String consulta = copia.entrySet().stream()
+                .map(parametro -> parametro.getKey() + "=" + parametro.getValue().replace(" ", "%20"))
+                .collect(Collectors.joining("&"));
+        return baseUrl + "?" + (consulta.isEmpty() ? "" : consulta + "&") + "page=" + pagina;
+    }
+
+    private Map<String, String> leerParametros(String consulta) {
+        Map<String, String> parametros = new LinkedHashMap<>();
+        if (consulta == null || consulta.isEmpty()) {
+            return parametros;
+        }
+        for (String par : consulta.split("&")) {
+            int igual = par.indexOf('=');
+            if (igual > 0) {
+                parametros.put(par.substring(0, igual),
+                        URLDecoder.decode(par.substring(igual + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parametros;
+    }
+
+    // ---------------------------------------------------------------------
+    // Envío
+    // ---------------------------------------------------------------------
+
+    private void enviar(HttpExchange intercambio, int estado, byte[] cuerpo) throws IOException {
+        intercambio.getResponseHeaders().set("Content-Type", "application/json");
+        intercambio.sendResponseHeaders(estado, cuerpo.length);
+        try (OutputStream salida = intercambio.getResponseBody()) {
+            salida.write(cuerpo);
+        }
+    }
+
+    /**
+     * Enviar solo la mitad del cuerpo como si fuera la respuesta completa
+     * (codificación chunked): el cliente recibe un fin de flujo limpio pero un
+     * JSON cortado, como cuando un proxy interrumpe la transferencia
+     */
+    private void enviarTruncado(HttpExchange intercambio, byte[] cuerpo) throws IOException {
+        intercambio.getResponseHeaders().set("Content-Type", "application/json");
+        intercambio.sendResponseHeaders(200, 0);
+        try (OutputStream salida = intercambio.getResponseBody()) {
+            salida.write(cuerpo, 0, cuerpo.length / 2);
+        }
+    }
+
+    private byte[] comprimirGzip(byte[] cuerpo) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(cuerpo.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(cuerpo);
+        }
+        return buffer.toByteArray();
+    }
+
+    // ---------------------------------------------------------------------
+    // Contadores
+    // ---------------------------------------------------------------------
+
+    public long getSolicitudes() {
+        return solicitudes.get();
+    }
+
+    public long getRespuestasExitosas() {
+        return respuestasExitosas.get();
+    }
+
+    public long getRespuestas429() {
+        return respuestas429.get();
+    }
+
+    public long getRespuestasTruncadas() {
+        return respuestasTruncadas.get();
+    }
+
+    public long getRespuestasNoModificadas() {
+        return respuestasNoModificadas.get();
+    }
+
+    public long getSolicitudesAlOrigen() {
+        return solicitudesAlOrigen.get();
+    }
+
+    /**
+     * Ejecutar el servidor de forma independiente, por ejemplo para mediciones:
+     * --puerto 8089 --sintetico 70000 --latencia 50 --429-cada 20 --truncar-cada 100 --gzip
+     * --grabaciones DIR [--grabar]
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opciones = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            boolean conValor = i + 1 < args.length && !args[i + 1].startsWith("--");
+            opciones.put(args[i], conValor ? args[++i] : "");
+        }
+
+        ServidorGutendexSimulado servidor = new ServidorGutendexSimulado();
+        if (opciones.containsKey("--sintetico")) {
+            servidor.conCatalogoSintetico(Integer.parseInt(opciones.get("--sintetico")));
+        }
+        if (opciones.containsKey("--grabaciones")) {
+            Path directorio = Paths.get(opciones.get("--grabaciones"));
+            if (opciones.containsKey("--grabar")) {
+                servidor.grabandoDesde(URL_GUTENDEX, directorio);
+            } else {
+                servidor.conGrabaciones(directorio);
+            }
+        }
+        if (opciones.containsKey("--latencia")) {
+            servidor.conLatencia(Long.parseLong(opciones.get("--latencia")));
+        }
+        if (opciones.containsKey("--429-cada")) {
+            servidor.con429Cada(Integer.parseInt(opciones.get("--429-cada")), 1);
+        }
+        if (opciones.containsKey("--truncar-cada")) {
+            servidor.conTruncadoCada(Integer.parseInt(opciones.get("--truncar-cada")));
+        }
+        if (opciones.containsKey("--gzip")) {
+            servidor.conCompresion();
+        }
+
+        servidor.iniciar(Integer.parseInt(opciones.getOrDefault("--puerto", "8089")));
+        System.out.println("📚 Gutendex simulado en " + servidor.getBaseUrl());
+        System.out.println("   Ejecute la aplicación con -Dliteralura.api.base-url=" + servidor.getBaseUrl());
+    }
+}
@@ -0,0 +1,52 @@
+package com.alura.literalura.repository;
+
+import com.alura.literalura.PruebaPostgresEmbebido;
+import com.alura.literalura.dto.ResumenLibro;
+import com.alura.literalura.entity.LibroEntity;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Consultas nativas de LibroRepository sobre PostgreSQL embebido
+ */
+class LibroRepositoryTest extends PruebaPostgresEmbebido {
+
+    @Autowired
+    private LibroRepository libroRepository;
+
+    @Test
+    void upsertDeLibroSinAutor() {
+        // Así queda un libro de Gutendex sin autores tras LibroConverter y CacheAutores
+        LibroEntity libro = new LibroEntity(70_001L, "Anónimo", null, "es", 15);
+
+        assertThat(libroRepository.upsert(libro)).isTrue();
+        assertThat(jdbcTemplate.queryForObject("SELECT autor_id FROM libros WHERE id = 70001", Long.class)).isNull();
+
+        // La segunda vez solo se refrescan las descargas
+        libro.setNumeroDescargas(20);
+        assertThat(libroRepository.upsert(libro)).isFalse();
+        assertThat(jdbcTemplate.queryForObject("SELECT numero_descargas FROM libros WHERE id = 70001", Integer.class))
+                .isEqualTo(20);
+
+        // Y aparece en los listados
+        assertThat(libroRepository.findResumenesPorIdioma("es", Limit.of(10)))
+                .extracting(ResumenLibro::titulo, ResumenLibro::nombreAutor)
+                .containsExactly(tuple("Anónimo", "Autor desconocido"));
+    }
+
+    @Test
+    void tituloNormalizadoIgnoraMayusculasYEspacios() {
+        libroRepository.upsert(new LibroEntity(70_002L, "Don  Quijote de la Mancha ", null, "la", 100));
+        libroRepository.upsert(new LibroEntity(70_003L, "Don Quijote de la Mancha (segunda parte)", null, "la", 50));
+
+        assertThat(libroRepository.findByTituloNormalizado(" don quijote DE LA   mancha"))
+                .map(LibroEntity::getId)
+                .contains(70_002L);
+        // Una coincidencia parcial no es el libro pedido
+        assertThat(libroRepository.findByTituloNormalizado("Don Quijote")).isEmpty();
+    }
+}
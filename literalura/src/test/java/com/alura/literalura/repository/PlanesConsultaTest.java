@@ -0,0 +1,152 @@
+package com.alura.literalura.repository;
+
+import com.alura.literalura.PruebaPostgresEmbebido;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Las consultas frecuentes de los repositorios no deben recorrer libros ni
+ * autores completos. Sobre PostgreSQL embebido con el esquema de Flyway y un
+ * catálogo sembrado (y analizado), cada consulta se ejecuta en su propia
+ * transacción y se cuentan los recorridos secuenciales que hizo según
+ * pg_stat_xact_user_tables. Las que leen la tabla entera por naturaleza
+ * (conteos globales, exportación, listados completos) quedan fuera.
+ */
+class PlanesConsultaTest extends PruebaPostgresEmbebido {
+
+    private static final int AUTORES = 40_000;
+    private static final int LIBROS = 80_000;
+
+    // md5('4321'): el título sembrado del libro 4321 es "Libro " + este valor
+    private static final String TITULO_4321 = "Libro d93591bdf7860e1e4ee2fca799911215";
+
+    private static boolean sembrado;
+
+    @Autowired
+    private LibroRepository libroRepository;
+
+    @Autowired
+    private AutorRepository autorRepository;
+
+    @Autowired
+    private TransactionTemplate transaccion;
+
+    private final List<String> recorridos = new ArrayList<>();
+
+    @BeforeEach
+    void sembrarCatalogo() {
+        if (sembrado) {
+            return;
+        }
+
+        // Años de nacimiento entre 1400 y 1949; uno de cada 10 sigue vivo
+        jdbcTemplate.update("""
+                INSERT INTO autores (id, nombre, ano_nacimiento, ano_fallecimiento)
+                SELECT g, 'Autor ' || g, 1400 + (g * 7) % 550,
+                       CASE WHEN g % 10 = 0 THEN NULL ELSE 1400 + (g * 7) % 550 + 30 + g % 50 END
+                  FROM generate_series(1, ?) g""", AUTORES);
+
+        // Títulos distintos entre sí; seis de cada diez libros en inglés; algunos sin descargas
+        jdbcTemplate.update("""
+                INSERT INTO libros (id, titulo, autor_id, idioma, numero_descargas)
+                SELECT g, 'Libro ' || md5(g::text), 1 + g % ?,
+                       (ARRAY['en', 'en', 'en', 'en', 'en', 'en', 'fr', 'es', 'de', 'it'])[1 + g % 10],
+                       CASE WHEN g % 50 = 0 THEN NULL ELSE (g * 7919) % 100000 END
+                  FROM generate_series(1, ?) g""", AUTORES, LIBROS);
+
+        jdbcTemplate.execute("ANALYZE libros");
+        jdbcTemplate.execute("ANALYZE autores");
+        sembrado = true;
+    }
+
+    @Test
+    void consultasDeLibrosUsanIndices() {
+        List<Long> autores = LongStream.rangeClosed(100, 150).boxed().toList();
+
+        verificar("findResumenesPorTitulo", () -> libroRepository.findResumenesPorTitulo(Limit.of(20)));
+        verificar("findResumenesPorTituloDespuesDe",
+                () -> libroRepository.findResumenesPorTituloDespuesDe("Libro 8", 5000L, Limit.of(20)));
+        verificar("findResumenesPorIdioma", () -> libroRepository.findResumenesPorIdioma("en", Limit.of(20)));
+        verificar("findResumenesPorIdiomaDespuesDe",
+                () -> libroRepository.findResumenesPorIdiomaDespuesDe("fr", 50_000, 30_000L, Limit.of(20)));
+        verificar("findResumenesMasDescargados", () -> libroRepository.findResumenesMasDescargados(Limit.of(10)));
+        verificar("findResumenesPorTituloConteniendo", () -> libroRepository.findResumenesPorTituloConteniendo(TITULO_4321.substring(8, 20)));
+        verificar("findResumenesPorAutorConteniendo", () -> libroRepository.findResumenesPorAutorConteniendo("Autor 4321"));
+        verificar("buscarTextoCompleto", () -> libroRepository.buscarTextoCompleto(TITULO_4321, 10));
+        verificar("findByTitulo", () -> libroRepository.findByTitulo(TITULO_4321));
+        verificar("findByTituloNormalizado",
+                () -> libroRepository.findByTituloNormalizado("  " + TITULO_4321.toUpperCase().replace(" ", "   ")));
+        // Umbral selectivo: en el catálogo sembrado las descargas son uniformes hasta 100000
+        verificar("findByNumeroDescargasGreaterThanOrderByNumeroDescargasDesc",
+                () -> libroRepository.findByNumeroDescargasGreaterThanOrderByNumeroDescargasDesc(99_000));
+        verificar("findByAutorId", () -> libroRepository.findByAutorId(42L));
+        verificar("findTitulosPorAutores", () -> libroRepository.findTitulosPorAutores(autores));
+
+        assertThat(recorridos).as("consultas con recorrido secuencial").isEmpty();
+    }
+
+    @Test
+    void consultasDeAutoresUsanIndices() {
+        List<String> nombres = LongStream.rangeClosed(1, 50).mapToObj(i -> "Autor " + i * 37).toList();
+
+        verificar("findByNombre", () -> autorRepository.findByNombre("Autor 123"));
+        verificar("findIdsPorNombre", () -> autorRepository.findIdsPorNombre(nombres));
+        verificar("findByNombreContainingIgnoreCase", () -> autorRepository.findByNombreContainingIgnoreCase("Autor 4321"));
+        verificar("findPaginaResumenesPorNombre", () -> autorRepository.findPaginaResumenesPorNombre(Limit.of(20)));
+        verificar("findPaginaResumenesPorNombreDespuesDe",
+                () -> autorRepository.findPaginaResumenesPorNombreDespuesDe("Autor 2500", Limit.of(20)));
+        verificar("findAutoresVivosEnAno", () -> autorRepository.findAutoresVivosEnAno(1420));
+        verificar("countAutoresVivosEnAno", () -> autorRepository.countAutoresVivosEnAno(1420));
+        verificar("findResumenesVivosEnAno", () -> autorRepository.findResumenesVivosEnAno(1420));
+        verificar("findByAnoNacimiento", () -> autorRepository.findByAnoNacimiento(1500));
+        verificar("findByAnoNacimientoLessThanEqual", () -> autorRepository.findByAnoNacimientoLessThanEqual(1410));
+        verificar("findByAnoNacimientoGreaterThanEqual",
+                () -> autorRepository.findByAnoNacimientoGreaterThanEqual(1940));
+        verificar("findByAnoNacimientoBetween", () -> autorRepository.findByAnoNacimientoBetween(1500, 1505));
+
+        assertThat(recorridos).as("consultas con recorrido secuencial").isEmpty();
+    }
+
+    /**
+     * Ejecutar la consulta y registrar las tablas que recorrió secuencialmente.
+     * JdbcTemplate usa la misma conexión que la transacción JPA; los contadores
+     * pendientes del backend pueden incluir transacciones anteriores, así que se
+     * compara antes y después.
+     */
+    private void verificar(String consulta, Runnable ejecucion) {
+        transaccion.executeWithoutResult(estado -> {
+            Map<String, Long> antes = recorridosSecuenciales();
+            ejecucion.run();
+            Map<String, Long> despues = recorridosSecuenciales();
+
+            List<String> tablas = despues.keySet().stream()
+                    .filter(tabla -> despues.get(tabla) > antes.getOrDefault(tabla, 0L))
+                    .sorted()
+                    .toList();
+            if (!tablas.isEmpty()) {
+                recorridos.add(consulta + " → " + tablas);
+            }
+        });
+    }
+
+    private Map<String, Long> recorridosSecuenciales() {
+        Map<String, Long> conteos = new HashMap<>();
+        jdbcTemplate.query("SELECT relname, seq_scan FROM pg_stat_xact_user_tables " +
+                        "WHERE relname IN ('libros', 'autores')",
+                fila -> {
+                    conteos.put(fila.getString("relname"), fila.getLong("seq_scan"));
+                });
+        return conteos;
+    }
+}
@@ -0,0 +1,102 @@
+package com.alura.literalura.service;
+
+import com.alura.literalura.service.CacheHttpDisco.EntradaCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Límites de la caché HTTP en disco: tamaño máximo (poda por fecha de último
+ * uso) y edad máxima
+ */
+class CacheHttpDiscoTest {
+
+    private static final String URL_A = "https://gutendex.com/books/?page=1";
+    private static final String URL_B = "https://gutendex.com/books/?page=2";
+    private static final String URL_C = "https://gutendex.com/books/?page=3";
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void alSuperarElTamanoSeEliminanLasUsadasHaceMasTiempo() throws IOException {
+        CacheHttpDisco cache = new CacheHttpDisco(directorio, 1000, Duration.ofDays(30));
+
+        EntradaCache a = guardar(cache, URL_A, 400);
+        EntradaCache b = guardar(cache, URL_B, 400);
+        usadaHace(a, Duration.ofHours(3));
+        usadaHace(b, Duration.ofHours(2));
+
+        // Leer A la renueva: ahora B es la usada hace más tiempo
+        assertThat(cache.leer(URL_A)).isPresent();
+
+        // 1200 bytes > 1000: se poda hasta 900
+        guardar(cache, URL_C, 400);
+
+        assertThat(cache.leer(URL_A)).isPresent();
+        assertThat(cache.leer(URL_B)).isEmpty();
+        assertThat(cache.leer(URL_C)).isPresent();
+        assertThat(Files.exists(b.archivoCuerpo())).isFalse();
+    }
+
+    @Test
+    void lasEntradasVencidasSeDescartan() throws IOException {
+        CacheHttpDisco cache = new CacheHttpDisco(directorio, 1000, Duration.ofDays(30));
+
+        EntradaCache a = guardar(cache, URL_A, 100);
+        usadaHace(a, Duration.ofDays(31));
+
+        assertThat(cache.leer(URL_A)).isEmpty();
+        assertThat(Files.exists(a.archivoCuerpo())).isFalse();
+    }
+
+    @Test
+    void lasVencidasDeOtraEjecucionSePodanEnLaPrimeraEscritura() throws IOException {
+        EntradaCache a = guardar(new CacheHttpDisco(directorio, 1000, Duration.ofDays(30)), URL_A, 100);
+        usadaHace(a, Duration.ofDays(31));
+
+        // Una instancia nueva recorre el directorio al escribir por primera vez
+        guardar(new CacheHttpDisco(directorio, 1000, Duration.ofDays(30)), URL_B, 100);
+
+        assertThat(Files.exists(a.archivoCuerpo())).isFalse();
+    }
+
+    @Test
+    void unaDescargaCortadaNoDejaTemporales() throws IOException {
+        CacheHttpDisco cache = new CacheHttpDisco(directorio, 1000, Duration.ofDays(30));
+        InputStream cortado = new SequenceInputStream(new ByteArrayInputStream(new byte[100]), new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Conexión cerrada");
+            }
+        });
+
+        assertThatThrownBy(() -> cache.guardarFlujo(URL_A, cortado, "\"v1\"", null)).isInstanceOf(IOException.class);
+
+        assertThat(cache.leer(URL_A)).isEmpty();
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            assertThat(archivos).isEmpty();
+        }
+    }
+
+    private EntradaCache guardar(CacheHttpDisco cache, String url, int bytes) throws IOException {
+        return cache.guardarFlujo(url, new ByteArrayInputStream(new byte[bytes]), "\"v1\"", null);
+    }
+
+    private void usadaHace(EntradaCache entrada, Duration tiempo) throws IOException {
+        Files.setLastModifiedTime(entrada.archivoCuerpo(), FileTime.from(Instant.now().minus(tiempo)));
+    }
+}
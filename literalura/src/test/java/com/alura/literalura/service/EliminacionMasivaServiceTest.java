@@ -0,0 +1,122 @@
+package com.alura.literalura.service;
+
+import com.alura.literalura.PruebaPostgresEmbebido;
+import com.alura.literalura.util.CriteriosFiltro;
+import com.alura.literalura.util.ResultadoEliminacionMasiva;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Purga por lotes, con los triggers de estadísticas por idioma de la base real
+ */
+@Import({EliminacionMasivaService.class, CacheAutores.class, CacheSegundoNivel.class})
+class EliminacionMasivaServiceTest extends PruebaPostgresEmbebido {
+
+    @Autowired
+    private EliminacionMasivaService eliminacionMasivaService;
+
+    @BeforeEach
+    void vaciarCatalogo() {
+        jdbcTemplate.execute("TRUNCATE libros, autores, estadisticas_idioma");
+    }
+
+    @Test
+    void eliminaPorIdiomaYSoloLosAutoresQueSeQuedanSinLibros() {
+        autor(1, "Solo en francés");
+        autor(2, "Compartido");
+        libro(1, 1, "fr", 10);
+        libro(2, 2, "fr", 20);
+        libro(3, 2, "es", 30);
+        libro(4, null, "fr", 5);
+        libro(5, null, "es", 5);
+
+        ResultadoEliminacionMasiva resultado = eliminacionMasivaService.eliminarLibros(CriteriosFiltro.porIdioma("FR"));
+
+        assertThat(resultado.getLibrosEliminados()).isEqualTo(3);
+        assertThat(resultado.getAutoresEliminados()).isEqualTo(1);
+        assertThat(ids("SELECT id FROM libros ORDER BY id")).containsExactly(3L, 5L);
+        assertThat(ids("SELECT id FROM autores ORDER BY id")).containsExactly(2L);
+        assertThat(jdbcTemplate.queryForList("SELECT idioma FROM estadisticas_idioma WHERE cantidad_libros > 0", String.class))
+                .containsExactly("es");
+    }
+
+    @Test
+    void eliminaPorDescargasMaximasContandoSinDescargasComoCero() {
+        autor(1, "Autor");
+        libro(1, 1, "en", null);
+        libro(2, 1, "en", 0);
+        libro(3, 1, "en", 100);
+        libro(4, 1, "en", 101);
+
+        ResultadoEliminacionMasiva resultado =
+                eliminacionMasivaService.eliminarLibros(CriteriosFiltro.porDescargasMaximas(100));
+
+        assertThat(resultado.getLibrosEliminados()).isEqualTo(3);
+        assertThat(resultado.getAutoresEliminados()).isZero();
+        assertThat(ids("SELECT id FROM libros")).containsExactly(4L);
+        assertThat(ids("SELECT id FROM autores")).containsExactly(1L);
+    }
+
+    @Test
+    void loteSoloDeLibrosSinAutor() {
+        libro(1, null, "la", 1);
+        libro(2, null, "la", 2);
+
+        ResultadoEliminacionMasiva resultado = eliminacionMasivaService.eliminarLibros(CriteriosFiltro.porIdioma("la"));
+
+        assertThat(resultado.getLibrosEliminados()).isEqualTo(2);
+        assertThat(resultado.getAutoresEliminados()).isZero();
+        assertThat(resultado.getLotes()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM libros", Long.class)).isZero();
+    }
+
+    @Test
+    void lotesCompletosYUnoParcial() {
+        int lote = EliminacionMasivaService.TAMANO_LOTE;
+        jdbcTemplate.update("INSERT INTO autores (id, nombre) SELECT g, 'Autor ' || g FROM generate_series(1, ?) g",
+                lote + 1);
+        // Un libro por autor: cada lote deja sin libros a todos sus autores
+        jdbcTemplate.update("INSERT INTO libros (id, titulo, autor_id, idioma, numero_descargas) " +
+                "SELECT g, 'Libro ' || g, g, 'en', 1 FROM generate_series(1, ?) g", lote + 1);
+
+        // Un lote lleno y uno de un solo libro
+        ResultadoEliminacionMasiva resultado = eliminacionMasivaService.eliminarLibros(
+                new CriteriosFiltro("en", null, "Libro", null));
+        assertThat(resultado.getLibrosEliminados()).isEqualTo(lote + 1);
+        assertThat(resultado.getAutoresEliminados()).isEqualTo(lote + 1);
+        assertThat(resultado.getLotes()).isEqualTo(2);
+
+        // Justo un lote lleno (sin autores): el siguiente ya no encuentra nada
+        jdbcTemplate.update("INSERT INTO libros (id, titulo, idioma) SELECT g, 'Libro ' || g, 'en' " +
+                "FROM generate_series(1, ?) g", lote);
+        resultado = eliminacionMasivaService.eliminarLibros(CriteriosFiltro.porIdioma("en"));
+        assertThat(resultado.getLibrosEliminados()).isEqualTo(lote);
+        assertThat(resultado.getLotes()).isEqualTo(1);
+    }
+
+    @Test
+    void sinCriteriosNoSeElimina() {
+        assertThatThrownBy(() -> eliminacionMasivaService.eliminarLibros(new CriteriosFiltro()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void autor(long id, String nombre) {
+        jdbcTemplate.update("INSERT INTO autores (id, nombre) VALUES (?, ?)", id, nombre);
+    }
+
+    private void libro(long id, Integer autorId, String idioma, Integer descargas) {
+        jdbcTemplate.update("INSERT INTO libros (id, titulo, autor_id, idioma, numero_descargas) VALUES (?, ?, ?, ?, ?)",
+                id, "Libro " + id, autorId, idioma, descargas);
+    }
+
+    private List<Long> ids(String sql) {
+        return jdbcTemplate.queryForList(sql, Long.class);
+    }
+}
@@ -0,0 +1,85 @@
+package com.alura.literalura.service;
+
+import com.alura.literalura.PruebaPostgresEmbebido;
+import com.alura.literalura.util.ReglaIntegridad;
+import com.alura.literalura.util.ResultadoIntegridad;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cada regla de integridad sembrada una vez, contada antes y después de reparar
+ */
+@Import({IntegridadCatalogoService.class, CacheAutores.class, CacheSegundoNivel.class})
+class IntegridadCatalogoServiceTest extends PruebaPostgresEmbebido {
+
+    @Autowired
+    private IntegridadCatalogoService integridadCatalogoService;
+
+    @BeforeEach
+    void sembrarViolaciones() {
+        jdbcTemplate.execute("TRUNCATE libros, autores, estadisticas_idioma");
+        // Como en las bases que creó Hibernate antes de Flyway: sin clave foránea hacia autores
+        jdbcTemplate.execute("ALTER TABLE libros DROP CONSTRAINT IF EXISTS libros_autor_id_fkey");
+
+        autor(1, "Cervantes, Miguel de", null, null);
+        autor(2, "cervantes,  Miguel de", null, null);
+        autor(3, "Sin Libros", null, null);
+        autor(4, "Invertido", 1900, 1800);
+        libro(1, 1L);
+        libro(2, 2L);
+        libro(3, 4L);
+        libro(4, 99L);
+        // Sin autor en Gutendex: válido, no es una violación
+        libro(5, null);
+    }
+
+    @Test
+    void verificarSoloCuenta() {
+        ResultadoIntegridad resultado = integridadCatalogoService.verificar();
+
+        for (ReglaIntegridad regla : ReglaIntegridad.values()) {
+            assertThat(resultado.getEncontrados(regla)).as(regla.name()).isEqualTo(1);
+        }
+        assertThat(resultado.getTotalReparados()).isZero();
+        assertThat(ids("SELECT id FROM libros ORDER BY id")).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(ids("SELECT id FROM autores ORDER BY id")).containsExactly(1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    void repararDejaElCatalogoIntegro() {
+        ResultadoIntegridad resultado = integridadCatalogoService.verificarYReparar();
+
+        for (ReglaIntegridad regla : ReglaIntegridad.values()) {
+            assertThat(resultado.getEncontrados(regla)).as(regla.name()).isEqualTo(1);
+            assertThat(resultado.getReparados(regla)).as(regla.name()).isEqualTo(1);
+        }
+
+        // El duplicado se fusionó con el de menor ID y se llevó su libro
+        assertThat(jdbcTemplate.queryForObject("SELECT autor_id FROM libros WHERE id = 2", Long.class)).isEqualTo(1L);
+        assertThat(ids("SELECT id FROM autores ORDER BY id")).containsExactly(1L, 4L);
+        assertThat(ids("SELECT id FROM libros ORDER BY id")).containsExactly(1L, 2L, 3L, 5L);
+        assertThat(jdbcTemplate.queryForObject("SELECT ano_nacimiento FROM autores WHERE id = 4", Integer.class)).isNull();
+
+        assertThat(integridadCatalogoService.verificar().isCatalogoIntegro()).isTrue();
+    }
+
+    private void autor(long id, String nombre, Integer nacimiento, Integer fallecimiento) {
+        jdbcTemplate.update("INSERT INTO autores (id, nombre, ano_nacimiento, ano_fallecimiento) VALUES (?, ?, ?, ?)",
+                id, nombre, nacimiento, fallecimiento);
+    }
+
+    private void libro(long id, Long autorId) {
+        jdbcTemplate.update("INSERT INTO libros (id, titulo, autor_id, idioma, numero_descargas) VALUES (?, ?, ?, 'en', 1)",
+                id, "Libro " + id, autorId);
+    }
+
+    private List<Long> ids(String sql) {
+        return jdbcTemplate.queryForList(sql, Long.class);
+    }
+}
@@ -0,0 +1,92 @@
+package com.alura.literalura.service;
+
+import com.alura.literalura.PruebaPostgresEmbebido;
+import com.alura.literalura.converter.AutorConverter;
+import com.alura.literalura.converter.LibroConverter;
+import com.alura.literalura.model.Autor;
+import com.alura.literalura.model.Libro;
+import com.alura.literalura.repository.AutorRepository;
+import com.alura.literalura.util.ResultadoPersistenciaMasiva;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Persistencia por lotes con upserts: mismo resultado que guardar los libros de
+ * a uno con PersistenciaService
+ */
+@Import({PersistenciaMasivaService.class, CacheAutores.class, CacheSegundoNivel.class,
+        LibroConverter.class, AutorConverter.class})
+class PersistenciaMasivaServiceTest extends PruebaPostgresEmbebido {
+
+    @Autowired
+    private PersistenciaMasivaService persistenciaMasivaService;
+
+    @Autowired
+    private AutorRepository autorRepository;
+
+    @Autowired
+    private CacheAutores cacheAutores;
+
+    @BeforeEach
+    void vaciarCatalogo() {
+        jdbcTemplate.execute("TRUNCATE libros, autores, estadisticas_idioma");
+        cacheAutores.limpiar();
+    }
+
+    @Test
+    void insertaNuevosRefrescaExistentesYGuardaLosSinAutor() {
+        jdbcTemplate.update("INSERT INTO autores (id, nombre) VALUES (1, 'Registrado')");
+        jdbcTemplate.update("INSERT INTO libros (id, titulo, autor_id, idioma, numero_descargas) " +
+                "VALUES (10, 'Ya guardado', 1, 'en', 5)");
+
+        ResultadoPersistenciaMasiva resultado = persistenciaMasivaService.persistirLibros(List.of(
+                libro(10, "Ya guardado", new Autor("Registrado", null, null), 50),
+                libro(11, "Nuevo de autor registrado", new Autor("Registrado", null, null), 7),
+                libro(12, "Nuevo de autor nuevo", new Autor("Nuevo", 1800, 1870), 8),
+                libro(12, "Repetido en el lote", new Autor("Nuevo", 1800, 1870), 9),
+                libro(13, "Sin autor", null, 3),
+                libro(14, "  ", new Autor("Nuevo", null, null), 1)));
+
+        assertThat(resultado.getLibrosInsertados()).isEqualTo(3);
+        assertThat(resultado.getLibrosExistentes()).isEqualTo(1);
+        assertThat(resultado.getLibrosDescartados()).isEqualTo(1);
+        assertThat(resultado.getAutoresCreados()).isEqualTo(1);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT numero_descargas FROM libros WHERE id = 10", Integer.class))
+                .isEqualTo(50);
+        assertThat(jdbcTemplate.queryForObject("SELECT autor_id FROM libros WHERE id = 11", Long.class)).isEqualTo(1L);
+        assertThat(jdbcTemplate.queryForObject("SELECT a.ano_nacimiento FROM libros l JOIN autores a ON a.id = l.autor_id " +
+                "WHERE l.id = 12", Integer.class)).isEqualTo(1800);
+        assertThat(jdbcTemplate.queryForObject("SELECT autor_id FROM libros WHERE id = 13", Long.class)).isNull();
+        assertThat(jdbcTemplate.queryForObject("SELECT cantidad_libros FROM estadisticas_idioma WHERE idioma = 'en'",
+                Long.class)).isEqualTo(4);
+    }
+
+    @Test
+    void autorCreadoPorOtraIngestaNoHaceFallarElLote() {
+        // Registrado después de que la caché lo diera por inexistente
+        assertThat(cacheAutores.obtenerId("Concurrente")).isEmpty();
+        jdbcTemplate.update("INSERT INTO autores (id, nombre) VALUES (7, 'Concurrente')");
+
+        List<Object[]> filas = autorRepository.upsertPorNombres(
+                new String[]{"Concurrente", "Otro"}, new Integer[]{1900, null}, new Integer[]{null, null});
+
+        Map<String, Object[]> porNombre = Map.of((String) filas.get(0)[0], filas.get(0), (String) filas.get(1)[0], filas.get(1));
+        assertThat(((Number) porNombre.get("Concurrente")[1]).longValue()).isEqualTo(7L);
+        assertThat(porNombre.get("Concurrente")[2]).isEqualTo(false);
+        assertThat(porNombre.get("Otro")[2]).isEqualTo(true);
+        assertThat(jdbcTemplate.queryForObject("SELECT ano_nacimiento FROM autores WHERE id = 7", Integer.class))
+                .isEqualTo(1900);
+    }
+
+    private Libro libro(long id, String titulo, Autor autor, int descargas) {
+        return new Libro(id, titulo, autor != null ? List.of(autor) : List.of(), List.of("en"), descargas);
+    }
+}